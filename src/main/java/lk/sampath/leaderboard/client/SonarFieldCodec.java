@@ -0,0 +1,210 @@
+package lk.sampath.leaderboard.client;
+
+import lk.sampath.leaderboard.entity.Issue;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Decoders for the SonarQube issue fields stored in the issues table.
+ * Enum names are matched against tables built once, effort and timestamps are read in a single
+ * pass over the characters, and malformed input yields the default (or null) instead of an
+ * exception, so mapping an issue page creates no garbage besides the values themselves.
+ */
+public final class SonarFieldCodec {
+
+    private static final Issue.Severity[] SEVERITIES = Issue.Severity.values();
+    private static final Issue.IssueType[] ISSUE_TYPES = Issue.IssueType.values();
+    private static final Issue.IssueStatus[] STATUSES = Issue.IssueStatus.values();
+
+    // SonarQube counts a day of effort as 8 hours
+    private static final int MINUTES_PER_DAY = 8 * 60;
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    // A parsed timestamp is packed into one long: year, month, day, hour, minute, second, then offset seconds + bias
+    private static final long INVALID = -1;
+    private static final int OFFSET_BIAS = 18 * 3600;
+
+    private SonarFieldCodec() {
+    }
+
+    /**
+     * Severity by case-insensitive name, MAJOR when missing or unknown
+     */
+    public static Issue.Severity severity(String text) {
+        return lookup(SEVERITIES, text, Issue.Severity.MAJOR);
+    }
+
+    /**
+     * Issue type by case-insensitive name, CODE_SMELL when missing or unknown
+     */
+    public static Issue.IssueType issueType(String text) {
+        return lookup(ISSUE_TYPES, text, Issue.IssueType.CODE_SMELL);
+    }
+
+    /**
+     * Status by case-insensitive name, OPEN when missing or unknown
+     */
+    public static Issue.IssueStatus status(String text) {
+        return lookup(STATUSES, text, Issue.IssueStatus.OPEN);
+    }
+
+    /**
+     * Effort in minutes from durations such as "5min", "2h", "1h30min", "1h 30min" or "1d" (8 hours).
+     * A bare number is taken as minutes; anything unreadable counts as 0.
+     */
+    public static int effortMinutes(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int minutes = 0;
+        int number = 0;
+        boolean digits = false;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                number = number * 10 + (c - '0');
+                digits = true;
+                continue;
+            }
+            switch (c) {
+                case 'd', 'D' -> minutes += number * MINUTES_PER_DAY;
+                case 'h', 'H' -> minutes += number * 60;
+                case 'm', 'M' -> {
+                    minutes += number;
+                    // Skip the rest of "min"
+                    while (i + 1 < length && Character.isLetter(text.charAt(i + 1))) {
+                        i++;
+                    }
+                }
+                case ' ' -> {
+                    continue;
+                }
+                default -> {
+                    return 0;
+                }
+            }
+            number = 0;
+            digits = false;
+        }
+        return digits ? minutes + number : minutes;
+    }
+
+    /**
+     * Wall-clock time of a SonarQube timestamp such as 2025-05-28T23:04:42-0400, or null when malformed.
+     * Also accepts fractional seconds, "Z", "+04:00" style offsets and no offset at all.
+     */
+    public static LocalDateTime localDateTime(String text) {
+        long packed = parseTimestamp(text);
+        return packed == INVALID ? null : toLocalDateTime(packed);
+    }
+
+    /**
+     * Instant of a SonarQube timestamp, or null when malformed; a missing offset is read as UTC
+     */
+    public static Instant instant(String text) {
+        long packed = parseTimestamp(text);
+        if (packed == INVALID) {
+            return null;
+        }
+        int offsetSeconds = (int) (packed & 0x3FFFF) - OFFSET_BIAS;
+        return toLocalDateTime(packed).toInstant(ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+
+    private static <E extends Enum<E>> E lookup(E[] values, String text, E fallback) {
+        if (text == null) {
+            return fallback;
+        }
+        for (E value : values) {
+            if (value.name().equalsIgnoreCase(text)) {
+                return value;
+            }
+        }
+        return fallback;
+    }
+
+    private static long parseTimestamp(String s) {
+        if (s == null || s.length() < 19) {
+            return INVALID;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if ((year | month | day | hour | minute | second) < 0
+                || s.charAt(4) != '-' || s.charAt(7) != '-' || (s.charAt(10) != 'T' && s.charAt(10) != ' ')
+                || s.charAt(13) != ':' || s.charAt(16) != ':'
+                || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return INVALID;
+        }
+
+        int i = 19;
+        int length = s.length();
+        if (i < length && s.charAt(i) == '.') {
+            i++;
+            while (i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+                i++;
+            }
+        }
+
+        int offsetSeconds = 0;
+        if (i < length) {
+            char sign = s.charAt(i);
+            if (sign == 'Z' && i + 1 == length) {
+                offsetSeconds = 0;
+            } else if (sign == '+' || sign == '-') {
+                int offsetHours = digits(s, i + 1, 2);
+                int rest = i + 3;
+                if (rest < length && s.charAt(rest) == ':') {
+                    rest++;
+                }
+                int offsetMinutes = rest + 2 == length ? digits(s, rest, 2) : (rest == length ? 0 : -1);
+                if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) {
+                    return INVALID;
+                }
+                offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (sign == '-' ? -1 : 1);
+            } else {
+                return INVALID;
+            }
+        }
+
+        return (long) year << 44 | (long) month << 40 | (long) day << 35 | (long) hour << 30
+                | (long) minute << 24 | (long) second << 18 | (offsetSeconds + OFFSET_BIAS);
+    }
+
+    private static LocalDateTime toLocalDateTime(long packed) {
+        return LocalDateTime.of((int) (packed >>> 44), (int) (packed >>> 40) & 0xF, (int) (packed >>> 35) & 0x1F,
+                (int) (packed >>> 30) & 0x1F, (int) (packed >>> 24) & 0x3F, (int) (packed >>> 18) & 0x3F);
+    }
+
+    /**
+     * Non-negative value of count decimal digits at from, or -1
+     */
+    private static int digits(String s, int from, int count) {
+        if (from + count > s.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2 && (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0))) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
+}
@@ -0,0 +1,204 @@
+package lk.sampath.leaderboard.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lk.sampath.leaderboard.dto.SonarIssuesSearchResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads an /api/issues/search response token by token.
+ * Only the paging block and the issue fields that are persisted are kept; text ranges,
+ * flows, comments and any other nested data are skipped without being materialised.
+ */
+public final class SonarIssuesStreamReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private SonarIssuesStreamReader() {
+    }
+
+    public static SonarIssuesSearchResponse read(InputStream in) throws IOException {
+        SonarIssuesSearchResponse response = new SonarIssuesSearchResponse();
+        Integer legacyTotal = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "paging" -> response.setPaging(readPaging(parser));
+                    case "issues" -> response.setIssues(readIssues(parser));
+                    // Older servers report the total at the top level only
+                    case "total" -> legacyTotal = intOrNull(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (response.getPaging() == null && legacyTotal != null) {
+            SonarIssuesSearchResponse.Paging paging = new SonarIssuesSearchResponse.Paging();
+            paging.setTotal(legacyTotal);
+            response.setPaging(paging);
+        }
+        if (response.getIssues() == null) {
+            response.setIssues(new ArrayList<>());
+        }
+        return response;
+    }
+
+    /**
+     * Stream the issues of a document of any size to the consumer in batches of batchSize, so only one
+     * batch is held at a time. The document is an issue search response (or an export in the same shape)
+     * or a bare array of issues.
+     *
+     * @return number of issues read
+     */
+    public static int readBatches(InputStream in, int batchSize,
+                                  Consumer<List<SonarIssuesSearchResponse.IssueDetail>> batches) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                return readIssueBatches(parser, batchSize, batches);
+            }
+            if (first != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object or array");
+            }
+
+            int count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("issues".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    count += readIssueBatches(parser, batchSize, batches);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return count;
+        }
+    }
+
+    private static int readIssueBatches(JsonParser parser, int batchSize,
+                                        Consumer<List<SonarIssuesSearchResponse.IssueDetail>> batches) throws IOException {
+        int size = Math.max(1, batchSize);
+        int count = 0;
+        List<SonarIssuesSearchResponse.IssueDetail> batch = new ArrayList<>(size);
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JsonParseException(parser, "Unexpected end of the issues array");
+            }
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            batch.add(readIssue(parser));
+            count++;
+            if (batch.size() == size) {
+                batches.accept(batch);
+                batch = new ArrayList<>(size);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.accept(batch);
+        }
+        return count;
+    }
+
+    private static SonarIssuesSearchResponse.Paging readPaging(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        SonarIssuesSearchResponse.Paging paging = new SonarIssuesSearchResponse.Paging();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "pageIndex" -> paging.setPageIndex(intOrZero(parser));
+                case "pageSize" -> paging.setPageSize(intOrZero(parser));
+                case "total" -> paging.setTotal(intOrZero(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return paging;
+    }
+
+    private static List<SonarIssuesSearchResponse.IssueDetail> readIssues(JsonParser parser) throws IOException {
+        List<SonarIssuesSearchResponse.IssueDetail> issues = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return issues;
+        }
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                issues.add(readIssue(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return issues;
+    }
+
+    private static SonarIssuesSearchResponse.IssueDetail readIssue(JsonParser parser) throws IOException {
+        SonarIssuesSearchResponse.IssueDetail issue = new SonarIssuesSearchResponse.IssueDetail();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "key" -> issue.setKey(textOrNull(parser));
+                case "rule" -> issue.setRule(textOrNull(parser));
+                case "severity" -> issue.setSeverity(textOrNull(parser));
+                case "component" -> issue.setComponent(textOrNull(parser));
+                case "project" -> issue.setProject(textOrNull(parser));
+                case "line" -> issue.setLine(intOrNull(parser));
+                case "status" -> issue.setStatus(textOrNull(parser));
+                case "message" -> issue.setMessage(textOrNull(parser));
+                case "effort" -> issue.setEffort(textOrNull(parser));
+                case "author" -> issue.setAuthor(textOrNull(parser));
+                case "type" -> issue.setType(textOrNull(parser));
+                case "creationDate" -> issue.setCreationDate(textOrNull(parser));
+                case "updateDate" -> issue.setUpdateDate(textOrNull(parser));
+                case "closeDate" -> issue.setCloseDate(textOrNull(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return issue;
+    }
+
+    private static String textOrNull(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING || token.isNumeric() || token.isBoolean()) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Integer intOrNull(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static int intOrZero(JsonParser parser) throws IOException {
+        Integer value = intOrNull(parser);
+        return value != null ? value : 0;
+    }
+}
@@ -6,16 +6,24 @@ import lk.sampath.leaderboard.services.SonarQubeConfigService;
 import lk.sampath.leaderboard.entity.SonarQubeConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 
 @Component
@@ -24,39 +32,69 @@ import java.util.*;
 public class SonarQubeClient {
 
     private final SonarQubeProperties properties;
-    private final RestTemplateBuilder restTemplateBuilder;
+    private final RestTemplate sonarRestTemplate;
     private final SonarQubeConfigService configService;
+    private final ExecutorService issueWindowExecutor;
+
+    // /api/issues/search rejects any request for results beyond this offset
+    private static final int SEARCH_RESULT_LIMIT = 10000;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final List<String> ISSUE_TYPES = List.of("BUG", "VULNERABILITY", "CODE_SMELL");
+    private static final List<String> SEVERITIES = List.of("BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO");
+    // Lower bound of the creation-date windows that cover a project's whole history
+    private static final LocalDate EARLIEST_CREATION_DATE = LocalDate.of(1970, 1, 1);
+    // /api/measures/search accepts at most this many project keys per request
+    private static final int MEASURES_SEARCH_BATCH = 100;
 
-    private RestTemplate restTemplate() {
+    /**
+     * Base URL and request headers resolved from the DB config (or application properties).
+     * Loaded once and reused for every request until the config is changed.
+     */
+    private volatile ConnectionSnapshot snapshot;
 
-        try {
-            Optional<SonarQubeConfig> cfg = configService.getLatestConfig();
-            if (cfg.isPresent() && cfg.get().getApiToken() != null && !cfg.get().getApiToken().isBlank()) {
-                return restTemplateBuilder.basicAuthentication(cfg.get().getApiToken(), "").build();
-            }
-        } catch (Exception e) {
-            log.debug("No DB sonar config available or error reading it: {}", e.getMessage());
-        }
+    private record ConnectionSnapshot(String baseUrl, HttpEntity<?> httpEntity) {
+    }
 
-        if (properties.getToken() != null && !properties.getToken().isBlank()) {
-            return restTemplateBuilder.basicAuthentication(properties.getToken(), "").build();
-        }
-        if (properties.getUsername() != null && !properties.getUsername().isBlank()) {
-            return restTemplateBuilder.basicAuthentication(properties.getUsername(), properties.getPassword() == null ? "" : properties.getPassword()).build();
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChanged(SonarQubeConfigService.ConfigChangedEvent event) {
+        log.info("SonarQube configuration changed (id {}), refreshing connection settings", event.configId());
+        snapshot = null;
+    }
+
+    private ConnectionSnapshot snapshot() {
+        ConnectionSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = loadSnapshot();
+                    snapshot = current;
+                }
+            }
         }
-        return restTemplateBuilder.build();
+        return current;
     }
 
-    private String getEffectiveBaseUrl() {
+    private ConnectionSnapshot loadSnapshot() {
+        Optional<SonarQubeConfig> cfg = Optional.empty();
         try {
-            Optional<SonarQubeConfig> cfg = configService.getLatestConfig();
-            if (cfg.isPresent() && cfg.get().getBaseUrl() != null && !cfg.get().getBaseUrl().isBlank()) {
-                return cfg.get().getBaseUrl();
-            }
+            cfg = configService.getLatestConfig();
         } catch (Exception e) {
             log.debug("No DB sonar config available or error reading it: {}", e.getMessage());
         }
-        return properties.getBaseUrl();
+
+        String baseUrl = cfg.map(SonarQubeConfig::getBaseUrl)
+                .filter(url -> !url.isBlank())
+                .orElse(properties.getBaseUrl());
+        String dbToken = cfg.map(SonarQubeConfig::getApiToken)
+                .filter(token -> !token.isBlank())
+                .orElse(null);
+
+        return new ConnectionSnapshot(baseUrl, createHttpEntity(dbToken));
+    }
+
+    private String getEffectiveBaseUrl() {
+        return snapshot().baseUrl();
     }
 
     public List<SonarProjectSearchResponse.Component> fetchAllProjects() {
@@ -72,7 +110,7 @@ public class SonarQubeClient {
                     .toUriString();
 
             try {
-                ResponseEntity<SonarProjectSearchResponse> response = restTemplate().exchange(
+                ResponseEntity<SonarProjectSearchResponse> response = sonarRestTemplate.exchange(
                         url, HttpMethod.GET, createHttpEntity(), SonarProjectSearchResponse.class);
 
                 if (response.getBody() != null) {
@@ -98,72 +136,376 @@ public class SonarQubeClient {
     }
 
     public List<SonarIssuesSearchResponse.IssueDetail> fetchIssuesForProject(String projectKey, LocalDate fromDate, LocalDate toDate) {
-        List<SonarIssuesSearchResponse.IssueDetail> allIssues = new ArrayList<>();
-        int page = 1;
+        List<SonarIssuesSearchResponse.IssueDetail> allIssues = Collections.synchronizedList(new ArrayList<>());
+        fetchIssuePagesForProject(projectKey, fromDate, toDate, allIssues::addAll);
+        return allIssues;
+    }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    /**
+     * Fetch issues created between fromDate and toDate (both inclusive) page by page,
+     * handing each page to the consumer as soon as it arrives.
+     * <p>
+     * /api/issues/search refuses to page past {@value #SEARCH_RESULT_LIMIT} results. When a query
+     * matches more than that, the range is split into smaller date windows (and, for a single
+     * day, by type and then severity) until every window fits under the cap. Those windows are
+     * fetched in parallel, so the consumer must be thread-safe. Windows do not overlap; an issue returned
+     * twice within a window (its page shifted while paging) is dropped, and one that moved to another window
+     * while they were fetched is merged by the upsert on issue_key downstream.
+     *
+     * @return number of issues handed to the consumer and whether every page was retrieved
+     */
+    public IssueFetchResult fetchIssuePagesForProject(String projectKey, LocalDate fromDate, LocalDate toDate,
+                                                      Consumer<List<SonarIssuesSearchResponse.IssueDetail>> pageConsumer) {
+        // createdBefore is exclusive, so the window ends at the start of the day after toDate
+        IssueWindow range = new IssueWindow(fromDate, toDate.plusDays(1), null, null);
+
+        SonarIssuesSearchResponse firstPage = searchIssues(projectKey, range, 1, properties.getPageSize());
+        if (firstPage == null) {
+            return new IssueFetchResult(0, false);
+        }
 
-        while (page <= properties.getMaxPages()) {
-            String url = UriComponentsBuilder.fromUriString(getEffectiveBaseUrl())
-                    .path("/api/issues/search")
-                    .queryParam("componentKeys", projectKey)
-                    .queryParam("createdAfter", fromDate.format(formatter))
-                    .queryParam("createdBefore", toDate.format(formatter))
-                    .queryParam("p", page)
-                    .queryParam("ps", properties.getPageSize())
-                    .queryParam("additionalFields", "comments")
-                    .toUriString();
+        int total = firstPage.getPaging() != null ? firstPage.getPaging().getTotal() : 0;
+        IssueFetchResult result;
+        if (total <= SEARCH_RESULT_LIMIT) {
+            result = fetchWindowPages(projectKey, range, firstPage, pageConsumer);
+        } else {
+            result = fetchPartitioned(projectKey, range, total, window -> fetchWindowDeduped(projectKey, window, pageConsumer));
+        }
 
-            try {
-                ResponseEntity<SonarIssuesSearchResponse> response = restTemplate().exchange(
-                        url, HttpMethod.GET, createHttpEntity(), SonarIssuesSearchResponse.class);
+        log.info("Fetched {} issues for project {}", result.fetched(), projectKey);
+        return result;
+    }
 
-                if (response.getBody() != null) {
-                    List<SonarIssuesSearchResponse.IssueDetail> issues = response.getBody().getIssues();
-                    if (issues.isEmpty()) {
-                        break;
-                    }
-                    allIssues.addAll(issues);
+    /**
+     * Fetch issues whose updateDate is after the given instant, most recently updated first.
+     * Paging stops at the first page that reaches back to the instant, so only what changed is read.
+     * When more issues changed than the search cap allows, the project is split into creation-date windows
+     * that each fit under the cap, as {@link #fetchIssuePagesForProject} does, and every window is read
+     * newest update first down to the instant. Windows are fetched in parallel, so the consumer must be
+     * thread-safe. The result is incomplete when a request fails or a window cannot be split any further.
+     */
+    public IssueFetchResult fetchIssuePagesUpdatedSince(String projectKey, Instant since,
+                                                        Consumer<List<SonarIssuesSearchResponse.IssueDetail>> pageConsumer) {
+        UpdatedPages recent = fetchUpdatedPages(projectKey, null, since, pageConsumer);
+        if (!recent.capped()) {
+            log.info("Fetched {} issues updated since {} for project {}", recent.fetched(), since, projectKey);
+            return new IssueFetchResult(recent.fetched(), recent.complete());
+        }
 
-                    if (issues.size() < properties.getPageSize()) {
-                        break;
-                    }
+        log.info("More than {} issues changed since {} in project {}; reading them by creation-date window",
+                SEARCH_RESULT_LIMIT, since, projectKey);
+        // Issues are dated by their SCM commit, so the whole history is covered; createdBefore is exclusive
+        IssueWindow history = new IssueWindow(EARLIEST_CREATION_DATE, LocalDate.now().plusDays(2), null, null);
+        SonarIssuesSearchResponse probe = searchIssues(projectKey, history, 1, 1);
+        if (probe == null || probe.getPaging() == null) {
+            return new IssueFetchResult(recent.fetched(), false);
+        }
+        IssueFetchResult windows = fetchPartitioned(projectKey, history, probe.getPaging().getTotal(), window -> {
+            UpdatedPages changed = fetchUpdatedPages(projectKey, window, since, pageConsumer);
+            return new IssueFetchResult(changed.fetched(), changed.complete() && !changed.capped());
+        });
+        log.info("Fetched {} issues updated since {} for project {}", windows.fetched(), since, projectKey);
+        return new IssueFetchResult(recent.fetched() + windows.fetched(), windows.complete());
+    }
+
+    /**
+     * Page through the issues of a window (or the whole project when null), most recently updated first,
+     * until reaching back to the given instant
+     */
+    private UpdatedPages fetchUpdatedPages(String projectKey, IssueWindow window, Instant since,
+                                           Consumer<List<SonarIssuesSearchResponse.IssueDetail>> pageConsumer) {
+        int pageSize = properties.getPageSize();
+        int maxPages = Math.min(properties.getMaxPages(), SEARCH_RESULT_LIMIT / pageSize);
+        int fetched = 0;
+
+        for (int page = 1; page <= maxPages; page++) {
+            SonarIssuesSearchResponse response = searchIssues(projectKey, window, true, page, pageSize);
+            if (response == null) {
+                return new UpdatedPages(fetched, false, false);
+            }
+
+            List<SonarIssuesSearchResponse.IssueDetail> issues = response.getIssues();
+            if (issues == null || issues.isEmpty()) {
+                return new UpdatedPages(fetched, true, false);
+            }
+
+            List<SonarIssuesSearchResponse.IssueDetail> changed = new ArrayList<>(issues.size());
+            boolean reachedWatermark = false;
+            for (SonarIssuesSearchResponse.IssueDetail issue : issues) {
+                Instant updated = SonarFieldCodec.instant(issue.getUpdateDate());
+                if (updated != null && !updated.isAfter(since)) {
+                    reachedWatermark = true;
+                    break;
                 }
-                page++;
-            } catch (Exception e) {
-                logRequestError(e, "Error fetching issues for project " + projectKey + " at page " + page);
-                break;
+                changed.add(issue);
+            }
+
+            if (!changed.isEmpty()) {
+                fetched += changed.size();
+                pageConsumer.accept(changed);
+            }
+            if (reachedWatermark || issues.size() < pageSize) {
+                return new UpdatedPages(fetched, true, false);
             }
         }
+        return new UpdatedPages(fetched, true, true);
+    }
 
-        log.info("Fetched {} issues for project {}", allIssues.size(), projectKey);
-        return allIssues;
+    /**
+     * @param capped the search cap was reached before the instant
+     */
+    private record UpdatedPages(int fetched, boolean complete, boolean capped) {
     }
 
-    public Map<String, String> fetchProjectMetrics(String projectKey) {
-        String url = UriComponentsBuilder.fromUriString(getEffectiveBaseUrl())
-                .path("/api/measures/component")
-                .queryParam("component", projectKey)
-                .queryParam("metricKeys", "ncloc,bugs,vulnerabilities,code_smells")
-                .toUriString();
+    /**
+     * @param fetched  number of issues handed to the page consumer
+     * @param complete false when a request failed or results had to be truncated
+     */
+    public record IssueFetchResult(int fetched, boolean complete) {
+    }
 
+    /**
+     * Split the range into windows under the search cap and fetch each of them on the window executor
+     */
+    private IssueFetchResult fetchPartitioned(String projectKey, IssueWindow range, int total,
+                                              Function<IssueWindow, IssueFetchResult> fetchWindow) {
+        List<IssueWindow> windows = new ArrayList<>();
+        boolean complete = partition(projectKey, range, total, windows);
+        log.info("Project {} has {} issues in range, above the search cap; fetching {} windows",
+                projectKey, total, windows.size());
+
+        List<Future<IssueFetchResult>> futures = new ArrayList<>();
+        for (IssueWindow window : windows) {
+            futures.add(issueWindowExecutor.submit(() -> fetchWindow.apply(window)));
+        }
+
+        int fetched = 0;
         try {
-            ResponseEntity<SonarMeasuresResponse> response = restTemplate().exchange(
-                    url, HttpMethod.GET, createHttpEntity(), SonarMeasuresResponse.class);
-
-            Map<String, String> metrics = new HashMap<>();
-            if (response.getBody() != null && response.getBody().getComponent() != null) {
-                response.getBody().getComponent().getMeasures().forEach(measure ->
-                        metrics.put(measure.getMetric(), measure.getValue())
-                );
+            for (Future<IssueFetchResult> future : futures) {
+                IssueFetchResult result = future.get();
+                fetched += result.fetched();
+                complete &= result.complete();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new CancellationException("Issue fetch interrupted for project " + projectKey);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
-            return metrics;
+            throw new IllegalStateException(e.getCause());
+        }
+        return new IssueFetchResult(fetched, complete);
+    }
+
+    /**
+     * Fetch one window, dropping issues it returns twice. A window holds at most the search cap,
+     * so the keys kept are bounded whatever the size of the project.
+     */
+    private IssueFetchResult fetchWindowDeduped(String projectKey, IssueWindow window,
+                                                Consumer<List<SonarIssuesSearchResponse.IssueDetail>> pageConsumer) {
+        // Pages of a window are fetched one after another on this thread
+        Set<String> seenKeys = new HashSet<>();
+        IssueFetchResult result = fetchWindowPages(projectKey, window, null, page -> {
+            List<SonarIssuesSearchResponse.IssueDetail> unseen = new ArrayList<>(page.size());
+            for (SonarIssuesSearchResponse.IssueDetail issue : page) {
+                if (seenKeys.add(issue.getKey())) {
+                    unseen.add(issue);
+                }
+            }
+            if (!unseen.isEmpty()) {
+                pageConsumer.accept(unseen);
+            }
+        });
+        return new IssueFetchResult(seenKeys.size(), result.complete());
+    }
+
+    /**
+     * Split a window whose total exceeds the search cap until every leaf fits.
+     * Leaf totals are probed with a single-result query.
+     *
+     * @return false if some issues cannot be reached (failed probe or unsplittable window)
+     */
+    private boolean partition(String projectKey, IssueWindow window, int total, List<IssueWindow> leaves) {
+        if (total <= SEARCH_RESULT_LIMIT) {
+            if (total > 0) {
+                leaves.add(window);
+            }
+            return true;
+        }
+
+        List<IssueWindow> children = window.split();
+        if (children.isEmpty()) {
+            log.warn("Cannot split issue window {} of project {} any further; only the first {} of {} issues will be fetched",
+                    window, projectKey, SEARCH_RESULT_LIMIT, total);
+            leaves.add(window);
+            return false;
+        }
+
+        boolean complete = true;
+        for (IssueWindow child : children) {
+            SonarIssuesSearchResponse probe = searchIssues(projectKey, child, 1, 1);
+            if (probe != null && probe.getPaging() != null) {
+                complete &= partition(projectKey, child, probe.getPaging().getTotal(), leaves);
+            } else {
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    private IssueFetchResult fetchWindowPages(String projectKey, IssueWindow window, SonarIssuesSearchResponse firstPage,
+                                              Consumer<List<SonarIssuesSearchResponse.IssueDetail>> pageConsumer) {
+        int pageSize = properties.getPageSize();
+        int maxPages = Math.min(properties.getMaxPages(), SEARCH_RESULT_LIMIT / pageSize);
+        int fetched = 0;
+
+        for (int page = 1; page <= maxPages; page++) {
+            SonarIssuesSearchResponse response = page == 1 && firstPage != null
+                    ? firstPage
+                    : searchIssues(projectKey, window, page, pageSize);
+            if (response == null) {
+                return new IssueFetchResult(fetched, false);
+            }
+
+            List<SonarIssuesSearchResponse.IssueDetail> issues = response.getIssues();
+            if (issues != null) {
+                if (issues.isEmpty()) {
+                    break;
+                }
+                fetched += issues.size();
+                pageConsumer.accept(issues);
+
+                if (issues.size() < pageSize) {
+                    break;
+                }
+            }
+        }
+        return new IssueFetchResult(fetched, true);
+    }
+
+    private SonarIssuesSearchResponse searchIssues(String projectKey, IssueWindow window, int page, int pageSize) {
+        return searchIssues(projectKey, window, false, page, pageSize);
+    }
+
+    /**
+     * @param window            creation-date window, or null for every issue of the project
+     * @param newestUpdateFirst sort by update date, most recent first
+     */
+    private SonarIssuesSearchResponse searchIssues(String projectKey, IssueWindow window, boolean newestUpdateFirst,
+                                                   int page, int pageSize) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(getEffectiveBaseUrl())
+                .path("/api/issues/search")
+                .queryParam("componentKeys", projectKey);
+        if (window != null) {
+            builder.queryParam("createdAfter", window.from().format(DATE_FORMAT))
+                    .queryParam("createdBefore", window.to().format(DATE_FORMAT));
+            if (window.type() != null) {
+                builder.queryParam("types", window.type());
+            }
+            if (window.severity() != null) {
+                builder.queryParam("severities", window.severity());
+            }
+        }
+        if (newestUpdateFirst) {
+            builder.queryParam("s", "UPDATE_DATE")
+                    .queryParam("asc", false);
+        }
+        builder.queryParam("p", page)
+                .queryParam("ps", pageSize);
+
+        try {
+            return getIssues(builder.toUriString());
         } catch (Exception e) {
-            logRequestError(e, "Error fetching metrics for project " + projectKey);
-            return Collections.emptyMap();
+            logRequestError(e, "Error fetching issues for project " + projectKey
+                    + (window != null ? " in " + window : "") + " at page " + page);
+            return null;
         }
     }
 
+    /**
+     * GET an issues search URL, streaming the body unless sonarqube.streaming-issue-parser is off
+     */
+    private SonarIssuesSearchResponse getIssues(String url) {
+        if (!properties.isStreamingIssueParser()) {
+            return sonarRestTemplate.exchange(url, HttpMethod.GET, createHttpEntity(), SonarIssuesSearchResponse.class)
+                    .getBody();
+        }
+        return sonarRestTemplate.execute(url, HttpMethod.GET,
+                sonarRestTemplate.httpEntityCallback(createHttpEntity()),
+                response -> SonarIssuesStreamReader.read(response.getBody()));
+    }
+
+    /**
+     * Slice of an issue search: creation dates in [from, to) optionally narrowed to one type and severity
+     */
+    private record IssueWindow(LocalDate from, LocalDate to, String type, String severity) {
+
+        List<IssueWindow> split() {
+            long days = ChronoUnit.DAYS.between(from, to);
+            if (days > 1) {
+                LocalDate mid = from.plusDays(days / 2);
+                return List.of(new IssueWindow(from, mid, type, severity), new IssueWindow(mid, to, type, severity));
+            }
+            if (type == null) {
+                return ISSUE_TYPES.stream().map(t -> new IssueWindow(from, to, t, severity)).toList();
+            }
+            if (severity == null) {
+                return SEVERITIES.stream().map(s -> new IssueWindow(from, to, type, s)).toList();
+            }
+            return List.of();
+        }
+
+        @Override
+        public String toString() {
+            return "[" + from + ", " + to + ")"
+                    + (type != null ? " type=" + type : "")
+                    + (severity != null ? " severity=" + severity : "");
+        }
+    }
+
+    /**
+     * Fetch ncloc for many projects at once, MEASURES_SEARCH_BATCH keys per request.
+     * Projects SonarQube has no measure for (or whose batch failed) are missing from the result.
+     */
+    public Map<String, Long> fetchNclocForProjects(Collection<String> projectKeys) {
+        List<String> keys = new ArrayList<>(projectKeys);
+        Map<String, Long> ncloc = new HashMap<>();
+
+        for (int from = 0; from < keys.size(); from += MEASURES_SEARCH_BATCH) {
+            List<String> batch = keys.subList(from, Math.min(from + MEASURES_SEARCH_BATCH, keys.size()));
+            String url = UriComponentsBuilder.fromUriString(getEffectiveBaseUrl())
+                    .path("/api/measures/search")
+                    .queryParam("projectKeys", String.join(",", batch))
+                    .queryParam("metricKeys", "ncloc")
+                    .toUriString();
+
+            try {
+                ResponseEntity<SonarMeasuresSearchResponse> response = sonarRestTemplate.exchange(
+                        url, HttpMethod.GET, createHttpEntity(), SonarMeasuresSearchResponse.class);
+
+                if (response.getBody() != null && response.getBody().getMeasures() != null) {
+                    for (SonarMeasuresSearchResponse.Measure measure : response.getBody().getMeasures()) {
+                        if ("ncloc".equals(measure.getMetric()) && measure.getValue() != null) {
+                            try {
+                                ncloc.put(measure.getComponent(), Long.parseLong(measure.getValue()));
+                            } catch (NumberFormatException e) {
+                                log.warn("Invalid ncloc '{}' for project {}", measure.getValue(), measure.getComponent());
+                            }
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                logRequestError(e, "Error fetching ncloc for " + batch.size() + " projects");
+            }
+        }
+
+        log.info("Fetched ncloc for {} of {} projects", ncloc.size(), keys.size());
+        return ncloc;
+    }
+
     public Set<String> fetchAuthorsForProject(String projectKey) {
         String url = UriComponentsBuilder.fromUriString(getEffectiveBaseUrl())
                 .path("/api/issues/authors")
@@ -172,7 +514,7 @@ public class SonarQubeClient {
                 .toUriString();
 
         try {
-            ResponseEntity<SonarAuthorsResponse> response = restTemplate().exchange(
+            ResponseEntity<SonarAuthorsResponse> response = sonarRestTemplate.exchange(
                     url, HttpMethod.GET, createHttpEntity(), SonarAuthorsResponse.class);
 
             if (response.getBody() != null && response.getBody().getAuthors() != null) {
@@ -184,6 +526,46 @@ public class SonarQubeClient {
         return Collections.emptySet();
     }
 
+    /**
+     * Page through /api/users/search to list every SonarQube user.
+     * Returns empty if any page fails (for example when the token may not list users),
+     * so callers can tell an incomplete directory from an empty one.
+     */
+    public Optional<List<SonarUserSearchResponse.User>> fetchAllUsers() {
+        List<SonarUserSearchResponse.User> users = new ArrayList<>();
+        int pageSize = properties.getPageSize();
+        int page = 1;
+
+        while (page <= properties.getMaxPages()) {
+            String url = UriComponentsBuilder.fromUriString(getEffectiveBaseUrl())
+                    .path("/api/users/search")
+                    .queryParam("p", page)
+                    .queryParam("ps", pageSize)
+                    .toUriString();
+
+            try {
+                ResponseEntity<SonarUserSearchResponse> response = sonarRestTemplate.exchange(
+                        url, HttpMethod.GET, createHttpEntity(), SonarUserSearchResponse.class);
+
+                List<SonarUserSearchResponse.User> pageUsers = response.getBody() != null ? response.getBody().getUsers() : null;
+                if (pageUsers == null || pageUsers.isEmpty()) {
+                    break;
+                }
+                users.addAll(pageUsers);
+                if (pageUsers.size() < pageSize) {
+                    break;
+                }
+                page++;
+            } catch (Exception e) {
+                logRequestError(e, "Error fetching users at page " + page);
+                return Optional.empty();
+            }
+        }
+
+        log.info("Fetched {} users from SonarQube", users.size());
+        return Optional.of(users);
+    }
+
     /**
      * Fetch user details (display name) from SonarQube for a given login/author key.
      * Uses /api/users/search?login={login}
@@ -200,7 +582,7 @@ public class SonarQubeClient {
                 .toUriString();
 
         try {
-            ResponseEntity<SonarUserSearchResponse> response = restTemplate().exchange(
+            ResponseEntity<SonarUserSearchResponse> response = sonarRestTemplate.exchange(
                     url, HttpMethod.GET, createHttpEntity(), SonarUserSearchResponse.class);
 
             if (response.getBody() != null && response.getBody().getUsers() != null) {
@@ -242,7 +624,7 @@ public class SonarQubeClient {
                 .toUriString();
 
         try {
-            ResponseEntity<SonarUserSearchResponse> response = restTemplate().exchange(
+            ResponseEntity<SonarUserSearchResponse> response = sonarRestTemplate.exchange(
                     url, HttpMethod.GET, createHttpEntity(), SonarUserSearchResponse.class);
 
             if (response.getBody() != null && response.getBody().getUsers() != null) {
@@ -267,9 +649,15 @@ public class SonarQubeClient {
     }
 
     private HttpEntity<?> createHttpEntity() {
+        return snapshot().httpEntity();
+    }
+
+    private HttpEntity<?> createHttpEntity(String dbToken) {
         HttpHeaders headers = new HttpHeaders();
-        // Prefer API token; if not present, fall back to username/password
-        if (properties.getToken() != null && !properties.getToken().isBlank()) {
+        // Prefer the token saved from the admin page, then the API token, then username/password
+        if (dbToken != null) {
+            headers.setBasicAuth(dbToken, "");
+        } else if (properties.getToken() != null && !properties.getToken().isBlank()) {
             headers.setBasicAuth(properties.getToken(), "");
         } else if (properties.getUsername() != null && !properties.getUsername().isBlank()) {
             headers.setBasicAuth(properties.getUsername(), properties.getPassword() == null ? "" : properties.getPassword());
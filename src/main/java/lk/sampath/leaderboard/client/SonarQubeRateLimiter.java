@@ -0,0 +1,61 @@
+package lk.sampath.leaderboard.client;
+
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by all threads calling the SonarQube API.
+ * Permits refill at a fixed rate up to the configured burst; callers that find the
+ * bucket empty reserve a future permit and sleep until it becomes available.
+ */
+@Component
+@Slf4j
+public class SonarQubeRateLimiter {
+
+    private final boolean enabled;
+    private final double nanosPerPermit;
+    private final double maxPermits;
+
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    public SonarQubeRateLimiter(SonarQubeProperties properties) {
+        double perSecond = properties.getSync().getRateLimitPerSecond();
+        this.enabled = perSecond > 0;
+        this.nanosPerPermit = enabled ? TimeUnit.SECONDS.toNanos(1) / perSecond : 0;
+        this.maxPermits = Math.max(1, properties.getSync().getRateLimitBurst());
+        this.storedPermits = maxPermits;
+        this.lastRefillNanos = System.nanoTime();
+
+        if (enabled) {
+            log.info("SonarQube API rate limit: {} requests/s, burst {}", perSecond, (int) maxPermits);
+        }
+    }
+
+    /**
+     * Blocks until a request permit is available
+     */
+    public void acquire() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefillNanos) / nanosPerPermit);
+            lastRefillNanos = now;
+
+            // A negative balance is a reservation against permits that have not refilled yet
+            storedPermits -= 1;
+            waitNanos = storedPermits >= 0 ? 0 : (long) (-storedPermits * nanosPerPermit);
+        }
+
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
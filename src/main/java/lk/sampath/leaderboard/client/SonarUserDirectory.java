@@ -0,0 +1,121 @@
+package lk.sampath.leaderboard.client;
+
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.dto.SonarUserSearchResponse;
+import lk.sampath.leaderboard.services.SonarQubeConfigService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory copy of the SonarQube user list, used to name new developers.
+ * The whole directory is listed with a few paged requests and reused until it expires
+ * (sonarqube.user-cache-ttl-minutes). If the directory cannot be listed, users are looked
+ * up one by one and each answer, including "not found", is cached for the same TTL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SonarUserDirectory {
+
+    private final SonarQubeClient sonarClient;
+    private final SonarQubeProperties properties;
+
+    private volatile Directory directory;
+    private final Map<String, CachedUser> singleLookups = new ConcurrentHashMap<>();
+
+    /**
+     * Users by lower-cased login and email, or null when listing users failed
+     */
+    private record Directory(Map<String, SonarUserSearchResponse.User> users, long expiresAtNanos) {
+    }
+
+    private record CachedUser(Optional<SonarUserSearchResponse.User> user, long expiresAtNanos) {
+    }
+
+    /**
+     * Find the SonarQube user for an issue author, matching on login or email
+     */
+    public Optional<SonarUserSearchResponse.User> findUser(String authorKey) {
+        if (authorKey == null || authorKey.isBlank()) {
+            return Optional.empty();
+        }
+
+        String key = authorKey.toLowerCase(Locale.ROOT);
+        Directory current = directory();
+        if (current.users() != null) {
+            return Optional.ofNullable(current.users().get(key));
+        }
+
+        long now = System.nanoTime();
+        CachedUser cached = singleLookups.get(key);
+        if (cached != null && now - cached.expiresAtNanos() < 0) {
+            return cached.user();
+        }
+        Optional<SonarUserSearchResponse.User> user = sonarClient.fetchUserDetails(authorKey);
+        singleLookups.put(key, new CachedUser(user, now + ttlNanos()));
+        return user;
+    }
+
+    /**
+     * Drop all cached users so the next lookup reloads the directory
+     */
+    public void invalidate() {
+        directory = null;
+        singleLookups.clear();
+    }
+
+    /**
+     * The cached users belong to the server of the previous configuration
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChanged(SonarQubeConfigService.ConfigChangedEvent event) {
+        invalidate();
+    }
+
+    private Directory directory() {
+        Directory current = directory;
+        if (current == null || System.nanoTime() - current.expiresAtNanos() >= 0) {
+            synchronized (this) {
+                current = directory;
+                if (current == null || System.nanoTime() - current.expiresAtNanos() >= 0) {
+                    current = loadDirectory();
+                    directory = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Directory loadDirectory() {
+        Optional<List<SonarUserSearchResponse.User>> users = sonarClient.fetchAllUsers();
+        if (users.isEmpty()) {
+            log.warn("Could not list SonarQube users, falling back to per-user lookups");
+            return new Directory(null, System.nanoTime() + ttlNanos());
+        }
+
+        Map<String, SonarUserSearchResponse.User> byKey = new HashMap<>();
+        for (SonarUserSearchResponse.User user : users.get()) {
+            if (user.getEmail() != null && !user.getEmail().isBlank()) {
+                byKey.putIfAbsent(user.getEmail().toLowerCase(Locale.ROOT), user);
+            }
+        }
+        // Logins win over emails that happen to look the same
+        for (SonarUserSearchResponse.User user : users.get()) {
+            if (user.getLogin() != null) {
+                byKey.put(user.getLogin().toLowerCase(Locale.ROOT), user);
+            }
+        }
+        singleLookups.clear();
+        return new Directory(byKey, System.nanoTime() + ttlNanos());
+    }
+
+    private long ttlNanos() {
+        return TimeUnit.MINUTES.toNanos(Math.max(1, properties.getUserCacheTtlMinutes()));
+    }
+}
@@ -0,0 +1,49 @@
+package lk.sampath.leaderboard.config;
+
+import jakarta.annotation.PostConstruct;
+import lk.sampath.leaderboard.entity.IdGenerators;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves every id_generators row past the ids already in use.
+ * Rows written with IDENTITY ids before the switch to pooled ids would otherwise collide
+ * with the first generated blocks. Runs after Hibernate has created or updated the schema,
+ * and does the same as V3__pooled_id_generators.sql, so running both is harmless.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignGenerators() {
+        for (String table : IdGenerators.TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // The pooled optimizer hands out the block ending at the stored value
+            long floor = (maxId == null ? 0 : maxId) + IdGenerators.ALLOCATION_SIZE + 1;
+
+            List<Long> current = jdbcTemplate.queryForList(
+                    "SELECT " + IdGenerators.VALUE_COLUMN + " FROM " + IdGenerators.TABLE
+                            + " WHERE " + IdGenerators.NAME_COLUMN + " = ?", Long.class, table);
+
+            if (current.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", "
+                        + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)", table, floor);
+                log.info("Initialised id generator for {} at {}", table, floor);
+            } else if (current.get(0) == null || current.get(0) < floor) {
+                jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ? WHERE "
+                        + IdGenerators.NAME_COLUMN + " = ?", floor, table);
+                log.info("Moved id generator for {} to {}", table, floor);
+            }
+        }
+    }
+}
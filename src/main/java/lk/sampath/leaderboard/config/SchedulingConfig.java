@@ -0,0 +1,13 @@
+package lk.sampath.leaderboard.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on the @Scheduled sync and ranking jobs.
+ * Every node fires them; JobLockService keeps runs of the same job from overlapping.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
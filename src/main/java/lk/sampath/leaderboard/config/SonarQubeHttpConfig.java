@@ -0,0 +1,71 @@
+package lk.sampath.leaderboard.config;
+
+import lk.sampath.leaderboard.client.SonarQubeRateLimiter;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Long-lived HTTP client for the SonarQube API.
+ * Connections are pooled and kept alive between page requests so a sync does not
+ * pay a TCP/TLS handshake for every call.
+ */
+@Configuration
+public class SonarQubeHttpConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient sonarHttpClient(SonarQubeProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(properties.getReadTimeoutMs()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofMilliseconds(properties.getReadTimeoutMs()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(properties.getIdleConnectionTimeoutSeconds()))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate sonarRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                          CloseableHttpClient sonarHttpClient,
+                                          SonarQubeRateLimiter rateLimiter) {
+        // Every request, whichever sync worker issues it, draws from the same token bucket
+        ClientHttpRequestInterceptor rateLimitInterceptor = (request, body, execution) -> {
+            try {
+                rateLimiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a SonarQube request permit");
+            }
+            return execution.execute(request, body);
+        };
+
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(sonarHttpClient))
+                .additionalInterceptors(rateLimitInterceptor)
+                .build();
+    }
+}
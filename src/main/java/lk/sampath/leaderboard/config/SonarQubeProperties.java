@@ -14,5 +14,74 @@ public class SonarQubeProperties {
     private String password;
     private int pageSize = 500;
     private int maxPages = 100;
-}
 
+    // HTTP connection pool shared by all SonarQube API calls
+    private int maxConnections = 50;
+    private int maxConnectionsPerRoute = 20;
+    private int connectTimeoutMs = 10000;
+    private int readTimeoutMs = 60000;
+    private int idleConnectionTimeoutSeconds = 30;
+
+    // Read issue search pages with the streaming parser, keeping only persisted fields
+    private boolean streamingIssueParser = true;
+
+    // How long the SonarQube user directory is cached before it is listed again
+    private int userCacheTtlMinutes = 60;
+
+    private Sync sync = new Sync();
+    private Webhook webhook = new Webhook();
+
+    @Data
+    public static class Sync {
+        // Number of projects synced concurrently; 1 keeps the sequential behaviour
+        private int parallelism = 4;
+        // Run sync workers and ingestion stages on virtual threads when the JVM supports them
+        private boolean virtualThreads = true;
+        // Token bucket shared by every worker; 0 or less disables rate limiting
+        private double rateLimitPerSecond = 10;
+        private int rateLimitBurst = 10;
+        // Issue pages buffered between the downloader and the database writer of a project
+        private int prefetchPages = 2;
+        // Date windows fetched concurrently when a project exceeds the 10,000 result search cap
+        private int windowParallelism = 4;
+        // Incremental syncs re-read this many minutes before the watermark to absorb clock skew
+        private int watermarkOverlapMinutes = 5;
+        // Issues written per transaction
+        private int chunkSize = 500;
+        // Date-range syncs are checkpointed after each slice of this many days; 0 syncs the range in one go
+        private int checkpointDays = 7;
+        // Full and monthly syncs close stored open issues that no longer exist in SonarQube
+        private boolean reconcileDeleted = true;
+        // Also delete stored issues that are already closed and have been purged from SonarQube
+        private boolean purgeClosedDeleted = false;
+        // Name of this node in sync leases; defaults to pid@host
+        private String nodeId;
+        // Projects claimed by a node are released to other nodes when not renewed for this long
+        private int leaseSeconds = 300;
+        // How often a node that has run out of projects checks for lapsed leases of other nodes
+        private int leasePollSeconds = 15;
+        // Longest a sync may hold the sync lock before other runs treat its node as dead; set above the longest sync
+        private int lockAtMostMinutes = 360;
+        // The scheduled monthly sync waits this long for a running sync to finish instead of being skipped
+        private int monthlySyncLockWaitMinutes = 240;
+        // Sync and ranking jobs submitted through the API that run at once, and that may wait for a worker
+        private int jobThreads = 2;
+        private int jobQueueCapacity = 8;
+        // Finished jobs kept for status queries
+        private int jobHistory = 50;
+        // Most import sources read at once, whatever parallelism an import request asks for
+        private int importParallelism = 4;
+        // Where bulk issue imports write the files they load; MySQL must allow LOAD DATA LOCAL from it
+        private String bulkLoadDir = System.getProperty("java.io.tmpdir") + "/leaderboard-bulk";
+    }
+
+    @Data
+    public static class Webhook {
+        // Secret set on the SonarQube webhook; webhooks are refused while it is empty
+        private String secret;
+        // Analyses of a project reported within this many seconds are synced once
+        private int debounceSeconds = 60;
+        // Rankings of the current month are recalculated this long after the last webhook sync
+        private int rankingDelaySeconds = 300;
+    }
+}
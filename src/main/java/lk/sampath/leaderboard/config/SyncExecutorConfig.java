@@ -0,0 +1,95 @@
+package lk.sampath.leaderboard.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker pool used to sync several projects concurrently.
+ * Concurrency is bounded by the callers (sonarqube.sync.parallelism), so a
+ * virtual-thread-per-task executor is used when the JVM provides one.
+ */
+@Configuration
+@Slf4j
+public class SyncExecutorConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService syncExecutor(SonarQubeProperties properties) {
+        SonarQubeProperties.Sync sync = properties.getSync();
+        ExecutorService virtual = virtualThreadExecutor(sync);
+        if (virtual != null) {
+            log.info("Sync workers will run on virtual threads");
+            return virtual;
+        }
+
+        // Each project in flight uses one worker, which writes what the pipeline's stages hand it
+        int poolSize = Math.max(1, sync.getParallelism());
+        return Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("sonar-sync-"));
+    }
+
+    /**
+     * Runs the parse and resolve stages of the ingestion pipeline.
+     * Syncs, webhook syncs and imports all ingest while holding a worker of their own pool, so the stages
+     * get a pool that never queues: a stage waiting for a free worker would block its caller for good.
+     * Concurrency is bounded by the callers, two stages per ingestion in flight.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService ingestExecutor(SonarQubeProperties properties) {
+        ExecutorService virtual = virtualThreadExecutor(properties.getSync());
+        return virtual != null ? virtual : Executors.newCachedThreadPool(new CustomizableThreadFactory("sonar-ingest-"));
+    }
+
+    private static ExecutorService virtualThreadExecutor(SonarQubeProperties.Sync sync) {
+        if (!sync.isVirtualThreads()) {
+            return null;
+        }
+        try {
+            // Looked up reflectively so the WAR still runs on a Java 17 runtime
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info("Virtual threads are not available on this JVM, using a platform thread pool");
+            return null;
+        }
+    }
+
+    /**
+     * Fetches the date windows of projects whose issue count exceeds the search cap.
+     * Shared by all projects so window downloads are bounded globally.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService issueWindowExecutor(SonarQubeProperties properties) {
+        int poolSize = Math.max(1, properties.getSync().getWindowParallelism());
+        return Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("sonar-window-"));
+    }
+
+    /**
+     * Runs sync and ranking jobs submitted through the API, off the request threads.
+     * Both the workers and the waiting queue are bounded; a submission beyond them is rejected.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService jobExecutor(SonarQubeProperties properties) {
+        SonarQubeProperties.Sync sync = properties.getSync();
+        int threads = Math.max(1, sync.getJobThreads());
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, sync.getJobQueueCapacity())),
+                new CustomizableThreadFactory("sync-job-"));
+    }
+
+    /**
+     * Reads the sources of parallel JSON imports; each source then writes through the ingestion pipeline
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService importExecutor(SonarQubeProperties properties) {
+        int poolSize = Math.max(1, properties.getSync().getImportParallelism());
+        return Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("json-import-"));
+    }
+}
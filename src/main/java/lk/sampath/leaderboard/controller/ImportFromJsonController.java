@@ -1,7 +1,12 @@
 package lk.sampath.leaderboard.controller;
 
+import lk.sampath.leaderboard.config.SonarQubeProperties;
 import lk.sampath.leaderboard.dto.ImportResponse;
 import lk.sampath.leaderboard.services.ImportFromJsonService;
+import lk.sampath.leaderboard.services.SyncEventStream;
+import lk.sampath.leaderboard.util.ImportStreams;
+import lk.sampath.leaderboard.util.NdjsonReader;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -9,51 +14,122 @@ import org.springframework.web.bind.annotation.*;
 import java.io.*;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @RestController
 @RequestMapping("/import")
 @CrossOrigin(origins = "*")
+@Slf4j
 public class ImportFromJsonController {
 
     @Autowired
     private ImportFromJsonService importFromJsonService;
 
+    @Autowired
+    private SyncEventStream eventStream;
+
+    @Autowired
+    private SonarQubeProperties properties;
+
+    @Autowired
+    private ExecutorService importExecutor;
+
+    private static final List<String> NDJSON_TYPES = List.of("issues", "developers", "projects", "rankings");
+
     // ----- IMPORT ISSUES -----
     @PostMapping("/issues")
     public ResponseEntity<ImportResponse> importIssues(
             @RequestParam(value = "url", required = false) String url,
-            @RequestParam(value = "urls", required = false) List<String> urls
+            @RequestParam(value = "urls", required = false) List<String> urls,
+            @RequestParam(value = "parallelism", defaultValue = "1") int parallelism,
+            @RequestParam(value = "mode", defaultValue = "pipeline") String mode
     ) {
-        return processImport("issues", url, urls);
+        ImportFromJsonService.IssueImportMode issueMode = issueMode(mode);
+        if (issueMode == null) {
+            return ResponseEntity.badRequest().body(
+                    new ImportResponse(false, "Unknown import mode: " + mode, 0, List.of("Use pipeline or bulk")));
+        }
+        return processImport("issues", url, urls, parallelism, issueMode, false);
     }
 
     // ----- IMPORT DEVELOPERS -----
     @PostMapping("/developers")
     public ResponseEntity<ImportResponse> importDevelopers(
             @RequestParam(value = "url", required = false) String url,
-            @RequestParam(value = "urls", required = false) List<String> urls
+            @RequestParam(value = "urls", required = false) List<String> urls,
+            @RequestParam(value = "parallelism", defaultValue = "1") int parallelism
     ) {
-        return processImport("developers", url, urls);
+        return processImport("developers", url, urls, parallelism, null, false);
     }
 
     // ----- IMPORT PROJECTS -----
     @PostMapping("/projects")
     public ResponseEntity<ImportResponse> importProjects(
             @RequestParam(value = "url", required = false) String url,
-            @RequestParam(value = "urls", required = false) List<String> urls
+            @RequestParam(value = "urls", required = false) List<String> urls,
+            @RequestParam(value = "parallelism", defaultValue = "1") int parallelism
     ) {
-        return processImport("projects", url, urls);
+        return processImport("projects", url, urls, parallelism, null, false);
+    }
+
+    // ----- IMPORT NDJSON -----
+    /**
+     * Import issues, developers, projects or rankings from newline-delimited JSON, one record per line.
+     * Sources are imported one after another; parallelism is the number of line ranges of a plain local
+     * file parsed at once (capped by sonarqube.sync.import-parallelism).
+     */
+    @PostMapping("/ndjson/{type}")
+    public ResponseEntity<ImportResponse> importNdjson(
+            @PathVariable String type,
+            @RequestParam(value = "url", required = false) String url,
+            @RequestParam(value = "urls", required = false) List<String> urls,
+            @RequestParam(value = "parallelism", defaultValue = "1") int parallelism,
+            @RequestParam(value = "mode", defaultValue = "pipeline") String mode
+    ) {
+        if (!NDJSON_TYPES.contains(type)) {
+            return ResponseEntity.badRequest().body(new ImportResponse(false, "Unknown type: " + type, 0,
+                    List.of("Use one of " + String.join(", ", NDJSON_TYPES))));
+        }
+        ImportFromJsonService.IssueImportMode issueMode = issueMode(mode);
+        if (issueMode == null) {
+            return ResponseEntity.badRequest().body(
+                    new ImportResponse(false, "Unknown import mode: " + mode, 0, List.of("Use pipeline or bulk")));
+        }
+        return processImport(type, url, urls, parallelism, issueMode, true);
+    }
+
+    private static ImportFromJsonService.IssueImportMode issueMode(String mode) {
+        try {
+            return ImportFromJsonService.IssueImportMode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
 
     // ========================================================================================
     //                          MAIN URL-BASED IMPORT HANDLER
     // ========================================================================================
+
+    /**
+     * Import every source, up to parallelism of them at once (capped by sonarqube.sync.import-parallelism).
+     * A source that fails to load or import only fails itself; its outcome is reported per source.
+     * NDJSON sources are imported one at a time, each parsed in up to parallelism ranges instead.
+     *
+     * @param mode how issues are written, null for other types
+     */
     private ResponseEntity<ImportResponse> processImport(
             String type,
             String url,
-            List<String> urls
+            List<String> urls,
+            int parallelism,
+            ImportFromJsonService.IssueImportMode mode,
+            boolean ndjson
     ) {
         List<String> errors = new ArrayList<>();
         int totalImported = 0;
@@ -70,30 +146,29 @@ public class ImportFromJsonController {
                 );
             }
 
-            for (String source : urlList) {
-                try (InputStream in = resolveInputStream(source)) {
-
-                    ImportResponse resp = importJson(type, in);
-                    if (resp != null) {
-                        totalImported += resp.getImportedCount();
-                        if (resp.getErrors() != null) errors.addAll(resp.getErrors());
-                    }
+            int threads = Math.min(Math.max(1, parallelism), Math.max(1, properties.getSync().getImportParallelism()));
+            int workers = ndjson ? 1 : Math.min(urlList.size(), threads);
+            List<ImportResponse.SourceResult> results = workers <= 1
+                    ? importSequentially(type, mode, urlList, ndjson ? threads : 0)
+                    : importInParallel(type, mode, urlList, workers);
 
-                } catch (Exception ex) {
-                    errors.add("Failed to load '" + source + "': " + ex.getMessage());
-                }
+            for (ImportResponse.SourceResult result : results) {
+                totalImported += result.getImportedCount();
+                if (result.getErrors() != null) errors.addAll(result.getErrors());
             }
 
             boolean success = totalImported > 0;
             String msg = totalImported + " " + type + " imported";
 
-            return ResponseEntity.ok(
-                    new ImportResponse(
-                            success,
-                            msg,
-                            totalImported,
-                            errors.isEmpty() ? null : errors)
-            );
+            ImportResponse response = new ImportResponse(
+                    success,
+                    msg,
+                    totalImported,
+                    errors.isEmpty() ? null : errors);
+            if (results.size() > 1) {
+                response.setSources(results);
+            }
+            return ResponseEntity.ok(response);
 
         } catch (Exception ex) {
             return ResponseEntity.status(500)
@@ -106,15 +181,121 @@ public class ImportFromJsonController {
         }
     }
 
+    /**
+     * @param ndjsonParts line ranges each NDJSON source is parsed in, 0 for JSON sources
+     */
+    private List<ImportResponse.SourceResult> importSequentially(String type, ImportFromJsonService.IssueImportMode mode,
+                                                                 List<String> sources, int ndjsonParts) {
+        List<ImportResponse.SourceResult> results = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            results.add(importSource(type, mode, ndjsonParts, sources.get(i), i, sources.size()));
+        }
+        return results;
+    }
+
+    /**
+     * Keep up to workers sources in flight on the import executor, starting the next as each one ends
+     */
+    private List<ImportResponse.SourceResult> importInParallel(String type, ImportFromJsonService.IssueImportMode mode,
+                                                               List<String> sources, int workers)
+            throws InterruptedException {
+        log.info("Importing {} {} sources, {} at a time", sources.size(), type, workers);
+        ImportResponse.SourceResult[] results = new ImportResponse.SourceResult[sources.size()];
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(importExecutor);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        int next = 0;
+        try {
+            for (; next < workers; next++) {
+                futures.add(submitSource(completion, type, mode, sources, next, results));
+            }
+            for (int done = 0; done < sources.size(); done++) {
+                completion.take();
+                if (next < sources.size()) {
+                    futures.add(submitSource(completion, type, mode, sources, next++, results));
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        return Arrays.asList(results);
+    }
+
+    private Future<Integer> submitSource(CompletionService<Integer> completion, String type,
+                                         ImportFromJsonService.IssueImportMode mode, List<String> sources,
+                                         int index, ImportResponse.SourceResult[] results) {
+        return completion.submit(() -> {
+            results[index] = importSource(type, mode, 0, sources.get(index), index, sources.size());
+            return index;
+        });
+    }
+
+    private ImportResponse.SourceResult importSource(String type, ImportFromJsonService.IssueImportMode mode,
+                                                     int ndjsonParts, String source, int index, int total) {
+        long start = System.currentTimeMillis();
+        ImportResponse.SourceResult result;
+        try {
+            ImportResponse resp = ndjsonParts > 0 ? importNdjson(type, mode, source, ndjsonParts)
+                    : importJson(type, mode, source);
+            result = new ImportResponse.SourceResult(source, resp.isSuccess(), resp.getImportedCount(),
+                    resp.getErrors(), System.currentTimeMillis() - start);
+        } catch (Exception ex) {
+            result = new ImportResponse.SourceResult(source, false, 0,
+                    List.of("Failed to load '" + source + "': " + ex.getMessage()), System.currentTimeMillis() - start);
+        }
+
+        log.info("Imported {} {} from source {}/{} {} in {} ms", result.getImportedCount(), type, index + 1, total,
+                source, result.getDurationMs());
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("source", source);
+        event.put("index", index + 1);
+        event.put("total", total);
+        event.put("imported", result.getImportedCount());
+        event.put("success", result.isSuccess());
+        event.put("durationMs", result.getDurationMs());
+        eventStream.publish("import-source-finished", event);
+        return result;
+    }
+
 
     // ========================================================================================
     //                                 SERVICE HANDLERS
     // ========================================================================================
-    private ImportResponse importJson(String type, InputStream input) throws Exception {
+    private ImportResponse importJson(String type, ImportFromJsonService.IssueImportMode mode, String source)
+            throws Exception {
+        try (InputStream input = resolveInputStream(source)) {
+            return switch (type) {
+                case "issues" -> importFromJsonService.importIssuesFromJson(input, mode);
+                case "developers" -> importFromJsonService.importDevelopersFromJson(input);
+                case "projects" -> importFromJsonService.importProjectsFromJson(input);
+                default -> throw new IllegalArgumentException("Unknown type: " + type);
+            };
+        }
+    }
+
+    /**
+     * A plain local file is split into line ranges parsed on the import executor; compressed files and
+     * URLs can only be read in order
+     */
+    private ImportResponse importNdjson(String type, ImportFromJsonService.IssueImportMode mode, String source,
+                                        int parts) throws Exception {
+        Path file = localFile(source);
+        if (file != null && parts > 1 && !ImportStreams.isCompressed(file)) {
+            return importNdjson(type, mode, NdjsonReader.ofFile(file, parts, importExecutor));
+        }
+        try (InputStream input = resolveInputStream(source)) {
+            return importNdjson(type, mode, NdjsonReader.ofStream(input));
+        }
+    }
+
+    private ImportResponse importNdjson(String type, ImportFromJsonService.IssueImportMode mode, NdjsonReader reader) {
         return switch (type) {
-            case "issues" -> importFromJsonService.importIssuesFromJson(input);
-            case "developers" -> importFromJsonService.importDevelopersFromJson(input);
-            case "projects" -> importFromJsonService.importProjectsFromJson(input);
+            case "issues" -> importFromJsonService.importIssuesFromNdjson(reader, mode);
+            case "developers" -> importFromJsonService.importDevelopersFromNdjson(reader);
+            case "projects" -> importFromJsonService.importProjectsFromNdjson(reader);
+            case "rankings" -> importFromJsonService.importRankingsFromNdjson(reader);
             default -> throw new IllegalArgumentException("Unknown type: " + type);
         };
     }
@@ -123,6 +304,10 @@ public class ImportFromJsonController {
     // ========================================================================================
     //                              URL/FILE RESOLUTION
     // ========================================================================================
+    /**
+     * Open an http(s) URL, file: URL or local path. Local files are read through ImportStreams;
+     * gzip and zstd compressed content is decoded whatever the source.
+     */
     private InputStream resolveInputStream(String pathOrUrl) throws Exception {
         if (pathOrUrl == null || pathOrUrl.isBlank()) {
             throw new IllegalArgumentException("URL is empty");
@@ -132,18 +317,26 @@ public class ImportFromJsonController {
             URLConnection conn = new URL(pathOrUrl).openConnection();
             conn.setConnectTimeout(15000);
             conn.setReadTimeout(60000);
-            return conn.getInputStream();
+            return ImportStreams.decode(conn.getInputStream());
         }
 
-        if (pathOrUrl.startsWith("file:")) {
-            return new URL(pathOrUrl).openStream();
+        Path file = localFile(pathOrUrl);
+        if (file != null) {
+            return ImportStreams.openFile(file);
         }
 
-        File file = new File(pathOrUrl);
-        if (file.exists() && file.isFile()) {
-            return new FileInputStream(file);
+        throw new FileNotFoundException("Not a valid URL or file path: " + pathOrUrl);
+    }
+
+    /**
+     * The local file a file: URL or path names, or null for anything else
+     */
+    private static Path localFile(String pathOrUrl) throws Exception {
+        if (pathOrUrl.startsWith("file:")) {
+            return Path.of(new URL(pathOrUrl).toURI());
         }
 
-        throw new FileNotFoundException("Not a valid URL or file path: " + pathOrUrl);
+        File file = new File(pathOrUrl);
+        return file.exists() && file.isFile() ? file.toPath() : null;
     }
-}
\ No newline at end of file
+}
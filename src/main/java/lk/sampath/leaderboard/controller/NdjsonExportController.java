@@ -0,0 +1,49 @@
+package lk.sampath.leaderboard.controller;
+
+import lk.sampath.leaderboard.services.NdjsonExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Newline-delimited JSON exports, streamed to the client as they are read; POST /import/ndjson/{type}
+ * reads them back
+ */
+@RestController
+@RequestMapping("/export")
+@CrossOrigin(origins = "*")
+@Slf4j
+public class NdjsonExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private NdjsonExportService exportService;
+
+    /**
+     * Export issues, developers, projects or rankings
+     *
+     * @param period only the rankings of this month (ignored for other types)
+     */
+    @GetMapping("/{type}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate period) {
+        if (!NdjsonExportService.TYPES.contains(type)) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("NDJSON export of {} requested", type);
+        StreamingResponseBody body = out -> exportService.export(type, period, out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + type + ".ndjson")
+                .body(body);
+    }
+}
@@ -0,0 +1,67 @@
+package lk.sampath.leaderboard.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.sampath.leaderboard.dto.SonarWebhookPayload;
+import lk.sampath.leaderboard.services.SonarQubeWebhookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Receives the SonarQube webhook fired after each project analysis
+ */
+@RestController
+@RequestMapping("/webhooks")
+@RequiredArgsConstructor
+@Slf4j
+public class SonarQubeWebhookController {
+
+    private static final String SIGNATURE_HEADER = "X-Sonar-Webhook-HMAC-SHA256";
+
+    private final SonarQubeWebhookService webhookService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Queue an incremental sync of the analysed project. The body is read raw because the
+     * signature is computed over its exact bytes.
+     */
+    @PostMapping("/sonarqube")
+    public ResponseEntity<?> analysisCompleted(@RequestBody byte[] body,
+                                               @RequestHeader(value = SIGNATURE_HEADER, required = false) String signature) {
+        if (!webhookService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Webhook secret is not configured"));
+        }
+        if (!webhookService.isSignatureValid(body, signature)) {
+            log.warn("Rejected SonarQube webhook with a missing or wrong signature");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid signature"));
+        }
+
+        SonarWebhookPayload payload;
+        try {
+            payload = objectMapper.readValue(body, SonarWebhookPayload.class);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid webhook payload"));
+        }
+        if (payload.getProject() == null || payload.getProject().getKey() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Webhook payload has no project key"));
+        }
+
+        String projectKey = payload.getProject().getKey();
+        if (!"SUCCESS".equalsIgnoreCase(payload.getStatus())) {
+            log.info("Ignoring webhook for project {} with analysis status {}", projectKey, payload.getStatus());
+            return ResponseEntity.ok(Map.of("project", projectKey, "queued", false));
+        }
+
+        boolean queued = webhookService.projectAnalysed(projectKey, payload.getProject().getName());
+        log.info("Webhook for project {} (task {}): {}", projectKey, payload.getTaskId(),
+                queued ? "sync queued" : "merged into queued sync");
+        return ResponseEntity.accepted().body(Map.of("project", projectKey, "queued", queued));
+    }
+}
@@ -1,16 +1,26 @@
 package lk.sampath.leaderboard.controller;
 
+import lk.sampath.leaderboard.services.IssueIngestionPipeline;
+import lk.sampath.leaderboard.services.JobLockService;
 import lk.sampath.leaderboard.services.RankingCalculationService;
 import lk.sampath.leaderboard.services.SonarQubeSyncService;
+import lk.sampath.leaderboard.services.SyncEventStream;
+import lk.sampath.leaderboard.services.SyncJobService;
 import lk.sampath.leaderboard.services.LeaderboardSchedulerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/sync")
@@ -21,6 +31,10 @@ public class SyncController {
     private final SonarQubeSyncService syncService;
     private final RankingCalculationService rankingService;
     private final LeaderboardSchedulerService schedulerService;
+    private final IssueIngestionPipeline ingestionPipeline;
+    private final JobLockService jobLockService;
+    private final SyncJobService syncJobService;
+    private final SyncEventStream eventStream;
 
 
     /**
@@ -30,17 +44,8 @@ public class SyncController {
     @PostMapping("/jobs/monthly-sync")
     public ResponseEntity<?> triggerMonthlySyncJob() {
         log.info("Manual trigger: Monthly data sync job");
-        try {
-            schedulerService.monthlyDataSync();
-            return ResponseEntity.ok(Map.of(
-                    "message", "Monthly data sync job completed successfully",
-                    "job", "monthlyDataSync"
-            ));
-        } catch (Exception e) {
-            log.error("Error during manual monthly sync job", e);
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Internal server error"));
-        }
+        return submit(SyncJobService.JobType.MONTHLY_SYNC, "Monthly data sync",
+                job -> schedulerService.monthlyDataSync());
     }
 
     /**
@@ -50,17 +55,8 @@ public class SyncController {
     @PostMapping("/jobs/monthly-ranking")
     public ResponseEntity<?> triggerMonthlyRankingJob() {
         log.info("Manual trigger: Monthly ranking calculation job");
-        try {
-            schedulerService.monthlyRankingCalculation();
-            return ResponseEntity.ok(Map.of(
-                    "message", "Monthly ranking calculation job completed successfully",
-                    "job", "monthlyRankingCalculation"
-            ));
-        } catch (Exception e) {
-            log.error("Error during manual monthly ranking job", e);
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Internal server error"));
-        }
+        return submit(SyncJobService.JobType.MONTHLY_RANKING, "Monthly ranking calculation",
+                job -> schedulerService.monthlyRankingCalculation());
     }
 
     /**
@@ -70,18 +66,14 @@ public class SyncController {
     @PostMapping("/jobs/monthly-complete")
     public ResponseEntity<?> triggerCompleteMonthlyJob() {
         log.info("Manual trigger: Complete monthly job (sync + ranking)");
-        try {
-            schedulerService.monthlyDataSync();
-            schedulerService.monthlyRankingCalculation();
-            return ResponseEntity.ok(Map.of(
-                    "message", "Complete monthly job (sync + ranking) completed successfully",
-                    "job", "monthlyComplete"
-            ));
-        } catch (Exception e) {
-            log.error("Error during manual complete monthly job", e);
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Internal server error"));
-        }
+        return submit(SyncJobService.JobType.MONTHLY_COMPLETE, "Complete monthly job (sync + ranking)", job -> {
+            job.setPhase("sync");
+            if (!schedulerService.monthlyDataSync()) {
+                return false;
+            }
+            job.setPhase("ranking");
+            return schedulerService.monthlyRankingCalculation();
+        });
     }
 
 
@@ -92,17 +84,8 @@ public class SyncController {
     public ResponseEntity<?> syncData(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month) {
         log.info("Manual sync triggered for {}", month);
-        try {
-            syncService.syncMonthlyData(month);
-            return ResponseEntity.ok(Map.of(
-                    "message", "Data sync completed successfully",
-                    "month", month
-            ));
-        } catch (Exception e) {
-            log.error("Error during manual sync", e);
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Internal server error"));
-        }
+        return submit(SyncJobService.JobType.SYNC, "Data sync for " + month,
+                job -> jobLockService.runLocked(JobLockService.Job.SONARQUBE_SYNC, null, () -> syncService.syncMonthlyData(month)));
     }
 
     /**
@@ -112,16 +95,72 @@ public class SyncController {
     public ResponseEntity<?> calculateRankings(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month) {
         log.info("Manual ranking calculation triggered for {}", month);
+        return submit(SyncJobService.JobType.CALCULATE_RANKINGS, "Ranking calculation for " + month,
+                job -> jobLockService.runLocked(JobLockService.Job.RANKING_CALCULATION, null,
+                        () -> rankingService.calculateMonthlyRankings(month)));
+    }
+
+    /**
+     * Status of a submitted job: SKIPPED means another run held the job lock
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<SyncJobService.JobView> jobStatus(@PathVariable String jobId) {
+        return syncJobService.find(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Queued, running and recently finished jobs
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<SyncJobService.JobView>> jobs() {
+        return ResponseEntity.ok(syncJobService.list());
+    }
+
+    /**
+     * Queue a job and answer 202 with its id, without waiting for it to run
+     */
+    private ResponseEntity<?> submit(SyncJobService.JobType type, String description, SyncJobService.JobTask task) {
         try {
-            rankingService.calculateMonthlyRankings(month);
-            return ResponseEntity.ok(Map.of(
-                    "message", "Ranking calculation completed successfully",
-                    "month", month
+            return syncJobService.submit(type, description, task)
+                    .<ResponseEntity<?>>map(job -> ResponseEntity.accepted().body(Map.of(
+                            "message", description + " submitted",
+                            "jobId", job.getId(),
+                            "status", "/sync/jobs/" + job.getId()
+                    )))
+                    .orElseGet(() -> alreadyRunning(type));
+        } catch (RejectedExecutionException e) {
+            log.warn("Job queue is full, rejecting {}", type);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                    "error", "Too many jobs queued, try again later",
+                    "job", type
             ));
-        } catch (Exception e) {
-            log.error("Error during manual ranking calculation", e);
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Internal server error"));
         }
     }
+
+    private ResponseEntity<?> alreadyRunning(SyncJobService.JobType type) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "A job of this type is already queued or running");
+        body.put("job", type);
+        syncJobService.active(type).ifPresent(job -> body.put("jobId", job.getId()));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    /**
+     * Live sync and ranking events as Server-Sent Events: run-started, project-started, project-finished,
+     * project-failed, progress (every 2s while a sync runs), run-finished and the ranking-* events
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        return eventStream.subscribe();
+    }
+
+    /**
+     * Issues handled and time spent per ingestion stage since startup
+     */
+    @GetMapping("/ingestion/stats")
+    public ResponseEntity<Map<IssueIngestionPipeline.Stage, IssueIngestionPipeline.StageStats>> ingestionStats() {
+        return ResponseEntity.ok(ingestionPipeline.stageStats());
+    }
 }
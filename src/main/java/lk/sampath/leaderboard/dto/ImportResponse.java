@@ -1,5 +1,6 @@
 package lk.sampath.leaderboard.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,10 +9,30 @@ import java.util.List;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class ImportResponse {
     private boolean success;
     private String message;
     private int importedCount;
     private List<String> errors;
-}
\ No newline at end of file
+    // Outcome of each source of a multi-source import
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SourceResult> sources;
+
+    public ImportResponse(boolean success, String message, int importedCount, List<String> errors) {
+        this.success = success;
+        this.message = message;
+        this.importedCount = importedCount;
+        this.errors = errors;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SourceResult {
+        private String source;
+        private boolean success;
+        private int importedCount;
+        private List<String> errors;
+        private long durationMs;
+    }
+}
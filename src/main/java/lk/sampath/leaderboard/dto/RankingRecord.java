@@ -0,0 +1,50 @@
+package lk.sampath.leaderboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One monthly ranking in NDJSON exports and imports: a developer's ranking when developer (the login)
+ * is set, a project's when project (the key) is set. Climber fields only exist for developers.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RankingRecord {
+    private String developer;
+    private String project;
+    private LocalDate period;
+
+    private Integer defectTerminatorScore;
+    private Integer defectTerminatorRank;
+    private Integer violationsResolved;
+    private Integer violationsIntroduced;
+
+    private BigDecimal codeRockScore;
+    private Integer codeRockRank;
+    private BigDecimal bugsPerKloc;
+
+    private BigDecimal codeShieldScore;
+    private Integer codeShieldRank;
+    private BigDecimal vulnerabilitiesPerKloc;
+
+    private BigDecimal craftsmanScore;
+    private Integer craftsmanRank;
+    private BigDecimal codeSmellsPerKloc;
+
+    private BigDecimal climberScore;
+    private Integer climberRank;
+    private BigDecimal avgRankImprovement;
+
+    private BigDecimal totalKloc;
+}
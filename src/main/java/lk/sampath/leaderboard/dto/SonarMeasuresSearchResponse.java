@@ -7,23 +7,15 @@ import java.util.List;
 
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class SonarMeasuresResponse {
-    private Component component;
-
-    @Data
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class Component {
-        private String key;
-        private String name;
-        private String qualifier;
-        private List<Measure> measures;
-    }
+public class SonarMeasuresSearchResponse {
+    private List<Measure> measures;
 
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Measure {
         private String metric;
         private String value;
+        private String component;
         private boolean bestValue;
     }
 }
@@ -0,0 +1,24 @@
+package lk.sampath.leaderboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * Body of the webhook SonarQube posts when a project analysis has been processed
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SonarWebhookPayload {
+    private String taskId;
+    // SUCCESS, FAILED or CANCELED
+    private String status;
+    private String analysedAt;
+    private Project project;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Project {
+        private String key;
+        private String name;
+    }
+}
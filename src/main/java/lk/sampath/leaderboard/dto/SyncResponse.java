@@ -15,6 +15,7 @@ public class SyncResponse {
         private int developersCreated;
         private int issuesCreated;
         private int issuesUpdated;
+        private int issuesSkipped;
         private int metricsCreated;
         private long durationMs;
     }
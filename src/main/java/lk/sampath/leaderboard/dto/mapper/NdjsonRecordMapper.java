@@ -0,0 +1,156 @@
+package lk.sampath.leaderboard.dto.mapper;
+
+import lk.sampath.leaderboard.dto.RankingRecord;
+import lk.sampath.leaderboard.dto.SonarDevelopersResponse;
+import lk.sampath.leaderboard.dto.SonarIssuesSearchResponse;
+import lk.sampath.leaderboard.dto.SonarProjectSearchResponse;
+import lk.sampath.leaderboard.entity.Developer;
+import lk.sampath.leaderboard.entity.IndividualRanking;
+import lk.sampath.leaderboard.entity.Issue;
+import lk.sampath.leaderboard.entity.Project;
+import lk.sampath.leaderboard.entity.ProjectRanking;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Records of the NDJSON interchange format. Issues, developers and projects use the SonarQube API
+ * shapes the JSON imports read, so an export can be imported into another environment as it is.
+ */
+@Component
+public class NdjsonRecordMapper {
+
+    // Stored times are wall-clock times; without an offset they are read back unchanged
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    public SonarIssuesSearchResponse.IssueDetail toIssueRecord(Issue issue) {
+        SonarIssuesSearchResponse.IssueDetail detail = new SonarIssuesSearchResponse.IssueDetail();
+        detail.setKey(issue.getIssueKey());
+        detail.setRule(issue.getRuleKey());
+        detail.setSeverity(issue.getSeverity() != null ? issue.getSeverity().name() : null);
+        detail.setComponent(issue.getComponentPath());
+        detail.setProject(issue.getProject().getProjectKey());
+        detail.setLine(issue.getLineNumber());
+        detail.setStatus(issue.getStatus() != null ? issue.getStatus().name() : null);
+        detail.setMessage(issue.getMessage());
+        detail.setEffort(issue.getEffortMinutes() != null ? issue.getEffortMinutes() + "min" : null);
+        detail.setAuthor(issue.getDeveloper() != null ? issue.getDeveloper().getAuthorKey() : null);
+        detail.setType(issue.getIssueType() != null ? issue.getIssueType().name() : null);
+        detail.setCreationDate(format(issue.getCreatedDate()));
+        detail.setUpdateDate(format(issue.getUpdatedDate()));
+        detail.setCloseDate(format(issue.getResolvedDate()));
+        return detail;
+    }
+
+    public SonarDevelopersResponse.Developer toDeveloperRecord(Developer developer) {
+        SonarDevelopersResponse.Developer record = new SonarDevelopersResponse.Developer();
+        record.setLogin(developer.getAuthorKey());
+        record.setName(developer.getDisplayName());
+        record.setEmail(developer.getEmail());
+        record.setActive(Boolean.TRUE.equals(developer.getIsActive()));
+        return record;
+    }
+
+    public SonarProjectSearchResponse.Component toProjectRecord(Project project) {
+        SonarProjectSearchResponse.Component record = new SonarProjectSearchResponse.Component();
+        record.setKey(project.getProjectKey());
+        record.setName(project.getProjectName());
+        record.setQualifier("TRK");
+        return record;
+    }
+
+    public RankingRecord toRankingRecord(IndividualRanking ranking) {
+        return RankingRecord.builder()
+                .developer(ranking.getDeveloper().getAuthorKey())
+                .period(ranking.getRankingPeriod())
+                .defectTerminatorScore(ranking.getDefectTerminatorScore())
+                .defectTerminatorRank(ranking.getDefectTerminatorRank())
+                .violationsResolved(ranking.getViolationsResolved())
+                .violationsIntroduced(ranking.getViolationsIntroduced())
+                .codeRockScore(ranking.getCodeRockScore())
+                .codeRockRank(ranking.getCodeRockRank())
+                .bugsPerKloc(ranking.getBugsPerKloc())
+                .codeShieldScore(ranking.getCodeShieldScore())
+                .codeShieldRank(ranking.getCodeShieldRank())
+                .vulnerabilitiesPerKloc(ranking.getVulnerabilitiesPerKloc())
+                .craftsmanScore(ranking.getCraftsmanScore())
+                .craftsmanRank(ranking.getCraftsmanRank())
+                .codeSmellsPerKloc(ranking.getCodeSmellsPerKloc())
+                .climberScore(ranking.getClimberScore())
+                .climberRank(ranking.getClimberRank())
+                .avgRankImprovement(ranking.getAvgRankImprovement())
+                .totalKloc(ranking.getTotalKloc())
+                .build();
+    }
+
+    public RankingRecord toRankingRecord(ProjectRanking ranking) {
+        return RankingRecord.builder()
+                .project(ranking.getProject().getProjectKey())
+                .period(ranking.getRankingPeriod())
+                .defectTerminatorScore(ranking.getDefectTerminatorScore())
+                .defectTerminatorRank(ranking.getDefectTerminatorRank())
+                .violationsResolved(ranking.getViolationsResolved())
+                .violationsIntroduced(ranking.getViolationsIntroduced())
+                .codeRockScore(ranking.getCodeRockScore())
+                .codeRockRank(ranking.getCodeRockRank())
+                .bugsPerKloc(ranking.getBugsPerKloc())
+                .codeShieldScore(ranking.getCodeShieldScore())
+                .codeShieldRank(ranking.getCodeShieldRank())
+                .vulnerabilitiesPerKloc(ranking.getVulnerabilitiesPerKloc())
+                .craftsmanScore(ranking.getCraftsmanScore())
+                .craftsmanRank(ranking.getCraftsmanRank())
+                .codeSmellsPerKloc(ranking.getCodeSmellsPerKloc())
+                .totalKloc(ranking.getTotalKloc())
+                .build();
+    }
+
+    /**
+     * Copy the scores and ranks of a record onto a developer's ranking
+     */
+    public void apply(RankingRecord record, IndividualRanking ranking) {
+        ranking.setRankingPeriod(record.getPeriod());
+        ranking.setDefectTerminatorScore(record.getDefectTerminatorScore());
+        ranking.setDefectTerminatorRank(record.getDefectTerminatorRank());
+        ranking.setViolationsResolved(record.getViolationsResolved());
+        ranking.setViolationsIntroduced(record.getViolationsIntroduced());
+        ranking.setCodeRockScore(record.getCodeRockScore());
+        ranking.setCodeRockRank(record.getCodeRockRank());
+        ranking.setBugsPerKloc(record.getBugsPerKloc());
+        ranking.setCodeShieldScore(record.getCodeShieldScore());
+        ranking.setCodeShieldRank(record.getCodeShieldRank());
+        ranking.setVulnerabilitiesPerKloc(record.getVulnerabilitiesPerKloc());
+        ranking.setCraftsmanScore(record.getCraftsmanScore());
+        ranking.setCraftsmanRank(record.getCraftsmanRank());
+        ranking.setCodeSmellsPerKloc(record.getCodeSmellsPerKloc());
+        ranking.setClimberScore(record.getClimberScore());
+        ranking.setClimberRank(record.getClimberRank());
+        ranking.setAvgRankImprovement(record.getAvgRankImprovement());
+        ranking.setTotalKloc(record.getTotalKloc());
+    }
+
+    /**
+     * Copy the scores and ranks of a record onto a project's ranking
+     */
+    public void apply(RankingRecord record, ProjectRanking ranking) {
+        ranking.setRankingPeriod(record.getPeriod());
+        ranking.setDefectTerminatorScore(record.getDefectTerminatorScore());
+        ranking.setDefectTerminatorRank(record.getDefectTerminatorRank());
+        ranking.setViolationsResolved(record.getViolationsResolved());
+        ranking.setViolationsIntroduced(record.getViolationsIntroduced());
+        ranking.setCodeRockScore(record.getCodeRockScore());
+        ranking.setCodeRockRank(record.getCodeRockRank());
+        ranking.setBugsPerKloc(record.getBugsPerKloc());
+        ranking.setCodeShieldScore(record.getCodeShieldScore());
+        ranking.setCodeShieldRank(record.getCodeShieldRank());
+        ranking.setVulnerabilitiesPerKloc(record.getVulnerabilitiesPerKloc());
+        ranking.setCraftsmanScore(record.getCraftsmanScore());
+        ranking.setCraftsmanRank(record.getCraftsmanRank());
+        ranking.setCodeSmellsPerKloc(record.getCodeSmellsPerKloc());
+        ranking.setTotalKloc(record.getTotalKloc());
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? TIMESTAMP.format(dateTime) : null;
+    }
+}
@@ -18,7 +18,10 @@ import java.time.LocalDateTime;
 public class Developer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "developers_id")
+    @TableGenerator(name = "developers_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "developers",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Integer id;
 
     @Column(name = "author_key", nullable = false, unique = true, length = 255)
@@ -0,0 +1,27 @@
+package lk.sampath.leaderboard.entity;
+
+import java.util.List;
+
+/**
+ * Shared settings of the table-backed id generators.
+ * Ids are handed out in blocks of ALLOCATION_SIZE by Hibernate's pooled optimizer, so
+ * inserts need no round-trip per row and can be sent as JDBC batches (IDENTITY ids cannot).
+ * The block size matches hibernate.jdbc.batch_size.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Tables whose ids come from id_generators; each uses its table name as the generator row
+     */
+    public static final List<String> TABLES = List.of(
+            "issues", "developers", "projects", "individual_rankings", "project_rankings",
+            "sync_logs", "project_kloc_snapshots", "monthly_champions", "sync_checkpoints", "sync_leases");
+
+    private IdGenerators() {
+    }
+}
@@ -21,7 +21,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Issue {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "issues_id")
+    @TableGenerator(name = "issues_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "issues",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Integer id;
 
     @Column(name = "issue_key", unique = true, nullable = false)
@@ -71,6 +74,10 @@ public class Issue {
     @Column(name = "updated_date")
     private LocalDateTime updatedDate;
 
+    // Hash of the synced columns; a re-fetched issue with the same hash is not written again
+    @Column(name = "content_hash")
+    private Long contentHash;
+
     @Column(name = "sonar_created_at", updatable = false)
     private LocalDateTime sonarCreatedAt;
 
@@ -0,0 +1,35 @@
+package lk.sampath.leaderboard.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lock of one job across every node. The job is held until lockedUntil; a holder that dies
+ * without releasing only blocks the job until then.
+ */
+@Entity
+@Table(name = "job_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLock {
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+
+    // Run that holds the lock; nodes taking part in the same cluster run share it
+    @Column(name = "locked_by", nullable = false, length = 200)
+    private String lockedBy;
+}
@@ -19,7 +19,10 @@ import java.time.LocalDateTime;
 @Builder
 public class MonthlyChampion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "monthly_champions_id")
+    @TableGenerator(name = "monthly_champions_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "monthly_champions",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Integer id;
 
     @Column(nullable = false)
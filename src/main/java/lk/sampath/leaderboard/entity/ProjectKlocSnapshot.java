@@ -0,0 +1,55 @@
+package lk.sampath.leaderboard.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lines of code of a project as measured by SonarQube for one ranking period.
+ * Captured during sync so rankings can be calculated without calling SonarQube.
+ */
+@Entity
+@Table(name = "project_kloc_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_kloc_project_period", columnNames = {"project_id", "snapshot_period"}),
+        indexes = @Index(name = "idx_kloc_snapshot_period", columnList = "snapshot_period"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectKlocSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "project_kloc_snapshots_id")
+    @TableGenerator(name = "project_kloc_snapshots_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "project_kloc_snapshots",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    // First day of the month the measurement belongs to
+    @Column(name = "snapshot_period", nullable = false)
+    private LocalDate snapshotPeriod;
+
+    @Column(name = "ncloc", nullable = false)
+    private Long ncloc;
+
+    @Column(name = "kloc", nullable = false, precision = 12, scale = 2)
+    private BigDecimal kloc;
+
+    @Column(name = "captured_at", nullable = false)
+    private LocalDateTime capturedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        capturedAt = LocalDateTime.now();
+    }
+}
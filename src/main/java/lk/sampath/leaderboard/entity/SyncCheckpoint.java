@@ -0,0 +1,60 @@
+package lk.sampath.leaderboard.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one project within a date-range sync run.
+ * Issues created before resumeFrom are committed; a restarted run continues from there.
+ * Rows of a run are removed once every project of the run has finished.
+ */
+@Entity
+@Table(name = "sync_checkpoints",
+        uniqueConstraints = @UniqueConstraint(name = "uk_checkpoint_run_project", columnNames = {"run_key", "project_key"}),
+        indexes = @Index(name = "idx_checkpoint_updated_at", columnList = "updated_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "sync_checkpoints_id")
+    @TableGenerator(name = "sync_checkpoints_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "sync_checkpoints",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Integer id;
+
+    // Identifies the run, e.g. "monthly:2025-11-01"
+    @Column(name = "run_key", nullable = false, length = 100)
+    private String runKey;
+
+    @Column(name = "project_key", nullable = false, length = 255)
+    private String projectKey;
+
+    // First creation date not yet synced
+    @Column(name = "resume_from", nullable = false)
+    private LocalDate resumeFrom;
+
+    @Column(name = "completed", nullable = false)
+    @Builder.Default
+    private Boolean completed = false;
+
+    @Column(name = "issues_committed", nullable = false)
+    @Builder.Default
+    private Integer issuesCommitted = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,64 @@
+package lk.sampath.leaderboard.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Claim of one project within a sync run shared by several nodes.
+ * The owner keeps renewing leaseUntil while it works; once it lapses another node may take the project over.
+ */
+@Entity
+@Table(name = "sync_leases",
+        uniqueConstraints = @UniqueConstraint(name = "uk_lease_run_project", columnNames = {"run_key", "project_key"}),
+        indexes = {
+                @Index(name = "idx_lease_owner", columnList = "owner"),
+                @Index(name = "idx_lease_updated_at", columnList = "updated_at")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncLease {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "sync_leases_id")
+    @TableGenerator(name = "sync_leases_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "sync_leases",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Integer id;
+
+    // Identifies the run, e.g. "monthly:2025-11-01:2025-12-01T02:00"
+    @Column(name = "run_key", nullable = false, length = 150)
+    private String runKey;
+
+    @Column(name = "project_key", nullable = false, length = 255)
+    private String projectKey;
+
+    // Node currently holding the project
+    @Column(name = "owner", nullable = false, length = 100)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "finished", nullable = false)
+    @Builder.Default
+    private Boolean finished = false;
+
+    @Column(name = "succeeded", nullable = false)
+    @Builder.Default
+    private Boolean succeeded = false;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -18,7 +18,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class SyncLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "sync_logs_id")
+    @TableGenerator(name = "sync_logs_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "sync_logs",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Integer id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,12 +45,19 @@ public class SyncLog {
     @Column(name = "records_updated")
     private Integer recordsUpdated = 0;
 
+    @Column(name = "records_skipped")
+    private Integer recordsSkipped = 0;
+
     @Column(name = "start_time", updatable = false)
     private LocalDateTime startTime;
 
     @Column(name = "end_time")
     private LocalDateTime endTime;
 
+    // Latest issue updateDate (UTC) known to be synced; incremental syncs resume from here
+    @Column(name = "high_water_mark")
+    private LocalDateTime highWaterMark;
+
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
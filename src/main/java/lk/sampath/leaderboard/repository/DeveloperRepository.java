@@ -2,15 +2,26 @@ package lk.sampath.leaderboard.repository;
 
 import lk.sampath.leaderboard.entity.Developer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DeveloperRepository extends JpaRepository<Developer, Integer> {
     Optional<Developer> findByAuthorKey(String authorKey);
+    List<Developer> findByAuthorKeyIn(Collection<String> authorKeys);
     List<Developer> findByIsActiveTrue();
     long countByIsActiveTrue();
     boolean existsByAuthorKey(String authorKey);
+
+    @Query("SELECT d.authorKey AS authorKey, d.id AS id FROM Developer d")
+    List<AuthorKeyId> findAllAuthorKeyIds();
+
+    interface AuthorKeyId {
+        String getAuthorKey();
+        Integer getId();
+    }
 }
@@ -2,6 +2,7 @@ package lk.sampath.leaderboard.repository;
 
 import lk.sampath.leaderboard.entity.Developer;
 import lk.sampath.leaderboard.entity.IndividualRanking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -45,5 +46,11 @@ public interface IndividualRankingRepository extends JpaRepository<IndividualRan
 
     Optional<IndividualRanking> findByDeveloperAndRankingPeriod(Developer developer, LocalDate period);
     List<IndividualRanking> findByRankingPeriod(LocalDate period);
-}
 
+    /**
+     * Keyset page of the rankings of one period, or of every period when period is null, ordered by id
+     */
+    @Query("SELECT ir FROM IndividualRanking ir JOIN FETCH ir.developer " +
+            "WHERE (:period IS NULL OR ir.rankingPeriod = :period) AND ir.id > :afterId ORDER BY ir.id")
+    List<IndividualRanking> findPageAfter(@Param("period") LocalDate period, @Param("afterId") Integer afterId, Pageable pageable);
+}
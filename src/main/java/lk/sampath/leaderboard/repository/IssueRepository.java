@@ -3,17 +3,21 @@ package lk.sampath.leaderboard.repository;
 import lk.sampath.leaderboard.entity.Developer;
 import lk.sampath.leaderboard.entity.Issue;
 import lk.sampath.leaderboard.entity.Project;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface IssueRepository extends JpaRepository<Issue, Integer> {
+public interface IssueRepository extends JpaRepository<Issue, Integer>, IssueRepositoryCustom {
     Optional<Issue> findByIssueKey(String issueKey);
     boolean existsByIssueKey(String issueKey);
 
@@ -71,4 +75,43 @@ public interface IssueRepository extends JpaRepository<Issue, Integer> {
 
     @Query("SELECT COUNT(i) FROM Issue i WHERE i.project.id = :projectId")
     Long countByProject(@Param("projectId") Integer projectId);
+
+    @Query("SELECT MIN(i.createdDate) FROM Issue i WHERE i.project = :project")
+    Optional<LocalDateTime> findEarliestCreatedDate(@Param("project") Project project);
+
+    /**
+     * Keyset page of a project's issues with a creation date that were last written before cutoff, ordered by id
+     */
+    @Query("SELECT i.id AS id, i.issueKey AS issueKey, i.status AS status FROM Issue i " +
+            "WHERE i.project = :project AND i.createdDate IS NOT NULL " +
+            "AND (i.sonarUpdatedAt IS NULL OR i.sonarUpdatedAt < :cutoff) AND i.id > :afterId ORDER BY i.id")
+    List<IssueKeyRow> findKeyRowsAfter(@Param("project") Project project,
+                                       @Param("cutoff") LocalDateTime cutoff,
+                                       @Param("afterId") Integer afterId,
+                                       Pageable pageable);
+
+    /**
+     * Keyset page of all issues with their project and developer, ordered by id
+     */
+    @Query("SELECT i FROM Issue i JOIN FETCH i.project LEFT JOIN FETCH i.developer WHERE i.id > :afterId ORDER BY i.id")
+    List<Issue> findPageAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    // The content hash is cleared so an issue that reappears unchanged is written back instead of skipped
+    @Modifying
+    @Transactional
+    @Query("UPDATE Issue i SET i.status = lk.sampath.leaderboard.entity.Issue.IssueStatus.CLOSED, " +
+            "i.resolvedDate = COALESCE(i.resolvedDate, :now), i.contentHash = NULL, i.sonarUpdatedAt = :now " +
+            "WHERE i.id IN :ids")
+    int closeAllById(@Param("ids") Collection<Integer> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Issue i WHERE i.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Integer> ids);
+
+    interface IssueKeyRow {
+        Integer getId();
+        String getIssueKey();
+        Issue.IssueStatus getStatus();
+    }
 }
@@ -0,0 +1,18 @@
+package lk.sampath.leaderboard.repository;
+
+import lk.sampath.leaderboard.entity.Issue;
+
+import java.util.Collection;
+
+public interface IssueRepositoryCustom {
+
+    /**
+     * Insert or update issues by issue_key using JDBC batches.
+     * Issues whose content matches the stored row are skipped without a write.
+     * The issues are not attached to the persistence context and their ids are not set.
+     */
+    UpsertResult upsertAll(Collection<Issue> issues);
+
+    record UpsertResult(int created, int updated, int skipped) {
+    }
+}
@@ -0,0 +1,243 @@
+package lk.sampath.leaderboard.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lk.sampath.leaderboard.entity.Issue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * JDBC implementation of the bulk issue writes.
+ * Existing keys of a batch and their content hashes are resolved with one IN query, and
+ * issues whose hash has not changed are not written at all. On MySQL/MariaDB the remaining
+ * rows are written with INSERT ... ON DUPLICATE KEY UPDATE; other databases get a batched
+ * INSERT for the new keys and a batched UPDATE for the changed ones.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class IssueRepositoryImpl implements IssueRepositoryCustom {
+
+    // Keeps IN lists well below database parameter limits
+    private static final int KEY_LOOKUP_BATCH_SIZE = 500;
+
+    private static final String COLUMNS = "project_id, developer_id, rule_key, severity, issue_type, status, "
+            + "component_path, line_number, message, effort_minutes, created_date, resolved_date, updated_date, "
+            + "content_hash, sonar_updated_at";
+
+    private static final String INSERT_SQL = "INSERT INTO issues (" + COLUMNS + ", sonar_created_at, issue_key, id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_SQL = INSERT_SQL + " ON DUPLICATE KEY UPDATE "
+            + "project_id = VALUES(project_id), developer_id = VALUES(developer_id), rule_key = VALUES(rule_key), "
+            + "severity = VALUES(severity), issue_type = VALUES(issue_type), status = VALUES(status), "
+            + "component_path = VALUES(component_path), line_number = VALUES(line_number), message = VALUES(message), "
+            + "effort_minutes = VALUES(effort_minutes), created_date = VALUES(created_date), "
+            + "resolved_date = VALUES(resolved_date), updated_date = VALUES(updated_date), "
+            + "content_hash = VALUES(content_hash), sonar_updated_at = VALUES(sonar_updated_at)";
+
+    private static final String UPDATE_SQL = "UPDATE issues SET project_id = ?, developer_id = ?, rule_key = ?, "
+            + "severity = ?, issue_type = ?, status = ?, component_path = ?, line_number = ?, message = ?, "
+            + "effort_minutes = ?, created_date = ?, resolved_date = ?, updated_date = ?, content_hash = ?, "
+            + "sonar_updated_at = ? WHERE issue_key = ?";
+
+    private static final int[] UPDATE_TYPES = {
+            Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.INTEGER, Types.TIMESTAMP, Types.TIMESTAMP,
+            Types.TIMESTAMP, Types.BIGINT, Types.TIMESTAMP, Types.VARCHAR
+    };
+
+    private static final int[] INSERT_TYPES = {
+            Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.INTEGER, Types.TIMESTAMP, Types.TIMESTAMP,
+            Types.TIMESTAMP, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.INTEGER
+    };
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private volatile Boolean supportsOnDuplicateKey;
+
+    private record ExistingIssue(int id, Long contentHash) {
+    }
+
+    @Override
+    @Transactional
+    public UpsertResult upsertAll(Collection<Issue> issues) {
+        // The last occurrence of a key wins, as it would with one save per issue
+        Map<String, Issue> byKey = new LinkedHashMap<>();
+        for (Issue issue : issues) {
+            issue.setContentHash(contentHash(issue));
+            byKey.put(issue.getIssueKey(), issue);
+        }
+        if (byKey.isEmpty()) {
+            return new UpsertResult(0, 0, 0);
+        }
+
+        Map<String, ExistingIssue> existing = findExisting(byKey.keySet());
+        int created = byKey.size() - existing.size();
+        Iterator<Integer> newIds = generateIds(created).iterator();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        int skipped = 0;
+        for (Issue issue : byKey.values()) {
+            ExistingIssue stored = existing.get(issue.getIssueKey());
+            if (stored == null) {
+                inserts.add(insertArgs(issue, newIds.next(), now));
+            } else if (issue.getContentHash().equals(stored.contentHash())) {
+                skipped++;
+            } else if (supportsOnDuplicateKey()) {
+                // Existing rows keep their id, so the duplicate found is always their own row
+                inserts.add(insertArgs(issue, stored.id(), now));
+            } else {
+                updates.add(updateArgs(issue, now));
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(supportsOnDuplicateKey() ? UPSERT_SQL : INSERT_SQL, inserts, INSERT_TYPES);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates, UPDATE_TYPES);
+        }
+
+        return new UpsertResult(created, existing.size() - skipped, skipped);
+    }
+
+    /**
+     * 64-bit FNV-1a hash over every column the sync writes, used to detect unchanged issues
+     */
+    static long contentHash(Issue issue) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, issue.getProject().getId());
+        hash = hash(hash, issue.getDeveloper() != null ? issue.getDeveloper().getId() : null);
+        hash = hash(hash, issue.getRuleKey());
+        hash = hash(hash, issue.getSeverity());
+        hash = hash(hash, issue.getIssueType());
+        hash = hash(hash, issue.getStatus());
+        hash = hash(hash, issue.getComponentPath());
+        hash = hash(hash, issue.getLineNumber());
+        hash = hash(hash, issue.getMessage());
+        hash = hash(hash, issue.getEffortMinutes());
+        hash = hash(hash, issue.getCreatedDate());
+        hash = hash(hash, issue.getResolvedDate());
+        hash = hash(hash, issue.getUpdatedDate());
+        return hash;
+    }
+
+    private static long hash(long hash, Object value) {
+        if (value != null) {
+            String text = value.toString();
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+            }
+        }
+        // Field separator, so adjacent values cannot run into each other
+        return (hash ^ 0x1F) * FNV_PRIME;
+    }
+
+    private Map<String, ExistingIssue> findExisting(Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        Map<String, ExistingIssue> existing = new HashMap<>();
+        for (int from = 0; from < keyList.size(); from += KEY_LOOKUP_BATCH_SIZE) {
+            List<String> batch = keyList.subList(from, Math.min(from + KEY_LOOKUP_BATCH_SIZE, keyList.size()));
+            namedParameterJdbcTemplate.query(
+                    "SELECT issue_key, id, content_hash FROM issues WHERE issue_key IN (:keys)",
+                    new MapSqlParameterSource("keys", batch),
+                    rs -> {
+                        long hash = rs.getLong(3);
+                        existing.put(rs.getString(1), new ExistingIssue(rs.getInt(2), rs.wasNull() ? null : hash));
+                    });
+        }
+        return existing;
+    }
+
+    /**
+     * Draw ids from the same pooled generator Hibernate uses for Issue, so JDBC and JPA
+     * inserts never collide and only one id_generators update is made per block
+     */
+    private List<Integer> generateIds(int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        if (count == 0) {
+            return ids;
+        }
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                    .getMappingMetamodel().getEntityDescriptor(Issue.class).getGenerator();
+            for (int i = 0; i < count; i++) {
+                ids.add(((Number) generator.generate(session, null, null, EventType.INSERT)).intValue());
+            }
+        }
+        return ids;
+    }
+
+    private boolean supportsOnDuplicateKey() {
+        Boolean supported = supportsOnDuplicateKey;
+        if (supported == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            String name = product == null ? "" : product.toLowerCase(Locale.ROOT);
+            supported = name.contains("mysql") || name.contains("mariadb");
+            supportsOnDuplicateKey = supported;
+            log.info("Bulk issue writes use {} on {}", supported ? "INSERT ... ON DUPLICATE KEY UPDATE" : "INSERT/UPDATE batches", product);
+        }
+        return supported;
+    }
+
+    private Object[] insertArgs(Issue issue, Integer id, Timestamp now) {
+        Object[] args = new Object[18];
+        fillColumns(issue, now, args);
+        args[15] = now;
+        args[16] = issue.getIssueKey();
+        args[17] = id;
+        return args;
+    }
+
+    private Object[] updateArgs(Issue issue, Timestamp now) {
+        Object[] args = new Object[16];
+        fillColumns(issue, now, args);
+        args[15] = issue.getIssueKey();
+        return args;
+    }
+
+    private void fillColumns(Issue issue, Timestamp now, Object[] args) {
+        args[0] = issue.getProject().getId();
+        args[1] = issue.getDeveloper() != null ? issue.getDeveloper().getId() : null;
+        args[2] = issue.getRuleKey();
+        args[3] = issue.getSeverity() != null ? issue.getSeverity().name() : null;
+        args[4] = issue.getIssueType().name();
+        args[5] = issue.getStatus() != null ? issue.getStatus().name() : null;
+        args[6] = issue.getComponentPath();
+        args[7] = issue.getLineNumber();
+        args[8] = issue.getMessage();
+        args[9] = issue.getEffortMinutes();
+        args[10] = timestamp(issue.getCreatedDate());
+        args[11] = timestamp(issue.getResolvedDate());
+        args[12] = timestamp(issue.getUpdatedDate());
+        args[13] = issue.getContentHash();
+        args[14] = now;
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
@@ -0,0 +1,250 @@
+package lk.sampath.leaderboard.repository;
+
+import lk.sampath.leaderboard.entity.IdGenerators;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.Locale;
+
+/**
+ * Set-based writes of the bulk issue import.
+ * A CSV file of parsed issues is loaded into issue_staging in one statement (LOAD DATA LOCAL INFILE on
+ * MySQL/MariaDB, CSVREAD on H2), and projects, developers and issues are then merged from the staged
+ * rows with INSERT ... SELECT and UPDATE ... JOIN (MERGE on H2). Ids of new rows come from blocks
+ * reserved in id_generators, so they never collide with ids handed out by Hibernate.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class IssueStagingRepository {
+
+    /**
+     * Columns of a staging CSV row, in file order
+     */
+    public static final String COLUMNS = "load_id, issue_key, row_no, project_key, author, rule_key, severity, "
+            + "issue_type, status, component_path, line_number, message, effort_minutes, created_date, "
+            + "updated_date, resolved_date";
+
+    // Same table as V8__create_issue_staging.sql; Hibernate does not create it as it has no entity
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS issue_staging ("
+            + "load_id VARCHAR(36) NOT NULL, issue_key VARCHAR(255) NOT NULL, row_no BIGINT NOT NULL, "
+            + "project_key VARCHAR(255), author VARCHAR(255), rule_key VARCHAR(255), severity VARCHAR(20), "
+            + "issue_type VARCHAR(20), status VARCHAR(20), component_path VARCHAR(500), line_number INT, "
+            + "message TEXT, effort_minutes INT, created_date DATETIME, updated_date DATETIME, "
+            + "resolved_date DATETIME, PRIMARY KEY (load_id, issue_key))";
+
+    // Staged projects and authors that have no row yet
+    private static final String NEW_PROJECTS = "FROM issue_staging s LEFT JOIN projects p ON p.project_key = s.project_key "
+            + "WHERE s.load_id = ? AND s.project_key <> '' AND p.id IS NULL";
+
+    private static final String NEW_DEVELOPERS = "FROM issue_staging s LEFT JOIN developers d ON d.author_key = s.author "
+            + "WHERE s.load_id = ? AND s.author <> '' AND d.id IS NULL";
+
+    private static final String NEW_ISSUES = "FROM issue_staging s JOIN projects p ON p.project_key = s.project_key "
+            + "LEFT JOIN developers d ON d.author_key = s.author "
+            + "LEFT JOIN issues i ON i.issue_key = s.issue_key "
+            + "WHERE s.load_id = ? AND i.id IS NULL";
+
+    private static final String ISSUE_VALUES = "s.rule_key, s.severity, s.issue_type, s.status, s.component_path, "
+            + "s.line_number, s.message, s.effort_minutes, s.created_date, s.resolved_date, s.updated_date";
+
+    // New rows are numbered from the first reserved id; rows past the reserved count wait for the next round
+    private static final String INSERT_PROJECTS_SQL = "INSERT INTO projects (id, project_key, project_name, is_active, "
+            + "created_at, updated_at) SELECT ? + n.rn - 1, n.project_key, n.project_key, TRUE, ?, ? FROM "
+            + "(SELECT k.project_key, ROW_NUMBER() OVER (ORDER BY k.project_key) AS rn FROM "
+            + "(SELECT DISTINCT s.project_key " + NEW_PROJECTS + ") k) n WHERE n.rn <= ?";
+
+    private static final String INSERT_DEVELOPERS_SQL = "INSERT INTO developers (id, author_key, display_name, is_active, "
+            + "created_at, updated_at) SELECT ? + n.rn - 1, n.author, n.author, TRUE, ?, ? FROM "
+            + "(SELECT k.author, ROW_NUMBER() OVER (ORDER BY k.author) AS rn FROM "
+            + "(SELECT DISTINCT s.author " + NEW_DEVELOPERS + ") k) n WHERE n.rn <= ?";
+
+    private static final String INSERT_ISSUES_SQL = "INSERT INTO issues (id, project_id, developer_id, rule_key, severity, "
+            + "issue_type, status, component_path, line_number, message, effort_minutes, created_date, resolved_date, "
+            + "updated_date, content_hash, sonar_updated_at, sonar_created_at, issue_key) "
+            + "SELECT ? + n.rn - 1, n.project_id, n.developer_id, n.rule_key, n.severity, n.issue_type, n.status, "
+            + "n.component_path, n.line_number, n.message, n.effort_minutes, n.created_date, n.resolved_date, "
+            + "n.updated_date, NULL, ?, ?, n.issue_key FROM "
+            + "(SELECT s.issue_key, p.id AS project_id, d.id AS developer_id, " + ISSUE_VALUES + ", "
+            + "ROW_NUMBER() OVER (ORDER BY s.row_no) AS rn " + NEW_ISSUES + ") n WHERE n.rn <= ?";
+
+    // content_hash is cleared: the hash covers database ids, so the next sync stores it with the row
+    private static final String UPDATE_ISSUES_MYSQL_SQL = "UPDATE issues i "
+            + "JOIN issue_staging s ON s.issue_key = i.issue_key AND s.load_id = ? "
+            + "JOIN projects p ON p.project_key = s.project_key "
+            + "LEFT JOIN developers d ON d.author_key = s.author "
+            + "SET i.project_id = p.id, i.developer_id = d.id, i.rule_key = s.rule_key, i.severity = s.severity, "
+            + "i.issue_type = s.issue_type, i.status = s.status, i.component_path = s.component_path, "
+            + "i.line_number = s.line_number, i.message = s.message, i.effort_minutes = s.effort_minutes, "
+            + "i.created_date = s.created_date, i.resolved_date = s.resolved_date, i.updated_date = s.updated_date, "
+            + "i.content_hash = NULL, i.sonar_updated_at = ?";
+
+    private static final String UPDATE_ISSUES_MERGE_SQL = "MERGE INTO issues i USING "
+            + "(SELECT s.issue_key, p.id AS project_id, d.id AS developer_id, " + ISSUE_VALUES + " "
+            + "FROM issue_staging s JOIN projects p ON p.project_key = s.project_key "
+            + "LEFT JOIN developers d ON d.author_key = s.author WHERE s.load_id = ?) s "
+            + "ON i.issue_key = s.issue_key WHEN MATCHED THEN UPDATE SET project_id = s.project_id, "
+            + "developer_id = s.developer_id, rule_key = s.rule_key, severity = s.severity, issue_type = s.issue_type, "
+            + "status = s.status, component_path = s.component_path, line_number = s.line_number, message = s.message, "
+            + "effort_minutes = s.effort_minutes, created_date = s.created_date, resolved_date = s.resolved_date, "
+            + "updated_date = s.updated_date, content_hash = NULL, sonar_updated_at = ?";
+
+    public enum Dialect {
+        MYSQL, H2, UNSUPPORTED
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Dialect dialect;
+    private volatile boolean tableReady;
+
+    /**
+     * How staged files are loaded on this database; UNSUPPORTED has no bulk load path
+     */
+    public Dialect dialect() {
+        Dialect current = dialect;
+        if (current == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            String name = product == null ? "" : product.toLowerCase(Locale.ROOT);
+            current = name.contains("mysql") || name.contains("mariadb") ? Dialect.MYSQL
+                    : name.contains("h2") ? Dialect.H2 : Dialect.UNSUPPORTED;
+            dialect = current;
+            log.info("Bulk issue imports on {} use {}", product, current);
+        }
+        return current;
+    }
+
+    /**
+     * How a NULL field is written in a staging CSV: \N for LOAD DATA, nothing at all for CSVREAD
+     */
+    public String nullField() {
+        return dialect() == Dialect.MYSQL ? "\\N" : "";
+    }
+
+    /**
+     * Load a staging CSV written in COLUMNS order, with quoted fields, backslash escapes and
+     * nullField() for NULL. Of two rows with the same issue key the later one is kept.
+     */
+    public void load(Path csv) {
+        ensureTable();
+        String file = csv.toAbsolutePath().toString().replace("'", "''");
+        switch (dialect()) {
+            // MySQL string literals treat backslashes as escapes
+            case MYSQL -> jdbcTemplate.execute("LOAD DATA LOCAL INFILE '" + file.replace("\\", "\\\\") + "' REPLACE INTO TABLE issue_staging "
+                    + "CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '\\\\' "
+                    + "LINES TERMINATED BY '\\n' (" + COLUMNS + ")");
+            case H2 -> jdbcTemplate.execute("MERGE INTO issue_staging (" + COLUMNS + ") KEY (load_id, issue_key) "
+                    + "SELECT * FROM CSVREAD('" + file + "', '"
+                    + COLUMNS.replace(" ", "").toUpperCase(Locale.ROOT)
+                    + "', 'charset=UTF-8 fieldSeparator=, escape=\\')");
+            default -> throw new UnsupportedOperationException("Bulk load is not supported on this database");
+        }
+    }
+
+    public int countStaged(String loadId) {
+        return count("SELECT COUNT(*) FROM issue_staging WHERE load_id = ?", loadId);
+    }
+
+    /**
+     * Staged issues whose project key is missing; they are not merged
+     */
+    public int countWithoutProject(String loadId) {
+        return count("SELECT COUNT(*) FROM issue_staging WHERE load_id = ? AND (project_key IS NULL OR project_key = '')",
+                loadId);
+    }
+
+    public int countNewProjects(String loadId) {
+        return count("SELECT COUNT(DISTINCT s.project_key) " + NEW_PROJECTS, loadId);
+    }
+
+    /**
+     * Create up to count staged projects that do not exist yet, named after their key
+     */
+    public int insertNewProjects(String loadId, int firstId, int count) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return jdbcTemplate.update(INSERT_PROJECTS_SQL, firstId, now, now, loadId, count);
+    }
+
+    public int countNewDevelopers(String loadId) {
+        return count("SELECT COUNT(DISTINCT s.author) " + NEW_DEVELOPERS, loadId);
+    }
+
+    /**
+     * Create up to count staged authors that do not exist yet, named after their login
+     */
+    public int insertNewDevelopers(String loadId, int firstId, int count) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return jdbcTemplate.update(INSERT_DEVELOPERS_SQL, firstId, now, now, loadId, count);
+    }
+
+    /**
+     * Overwrite the stored issues that were staged
+     */
+    public int updateExistingIssues(String loadId) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return jdbcTemplate.update(dialect() == Dialect.MYSQL ? UPDATE_ISSUES_MYSQL_SQL : UPDATE_ISSUES_MERGE_SQL,
+                loadId, now);
+    }
+
+    public int countNewIssues(String loadId) {
+        return count("SELECT COUNT(*) " + NEW_ISSUES, loadId);
+    }
+
+    /**
+     * Insert up to count staged issues that are not stored yet
+     */
+    public int insertNewIssues(String loadId, int firstId, int count) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return jdbcTemplate.update(INSERT_ISSUES_SQL, firstId, now, now, loadId, count);
+    }
+
+    public void delete(String loadId) {
+        if (tableReady) {
+            jdbcTemplate.update("DELETE FROM issue_staging WHERE load_id = ?", loadId);
+        }
+    }
+
+    /**
+     * Take count consecutive ids of a table out of its id_generators row.
+     * Hibernate's pooled optimizer hands out a block of ids next to each value it reads, so the value is
+     * moved on by one block more than needed and the ids between the old and new value are claimed, clear
+     * of the blocks read before and after on either side.
+     *
+     * @return the first id reserved
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int reserveIds(String table, int count) {
+        int blocks = (count + IdGenerators.ALLOCATION_SIZE - 1) / IdGenerators.ALLOCATION_SIZE + 1;
+        // The update locks the row until commit, so the value read back is ours
+        int updated = jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = "
+                + IdGenerators.VALUE_COLUMN + " + ? WHERE " + IdGenerators.NAME_COLUMN + " = ?",
+                (long) blocks * IdGenerators.ALLOCATION_SIZE, table);
+        if (updated == 0) {
+            throw new IllegalStateException("No id generator row for " + table);
+        }
+        Long value = jdbcTemplate.queryForObject("SELECT " + IdGenerators.VALUE_COLUMN + " FROM " + IdGenerators.TABLE
+                + " WHERE " + IdGenerators.NAME_COLUMN + " = ?", Long.class, table);
+        long previous = value - (long) blocks * IdGenerators.ALLOCATION_SIZE;
+        return Math.toIntExact(previous - IdGenerators.ALLOCATION_SIZE + 2);
+    }
+
+    private int count(String sql, String loadId) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, loadId);
+        return count == null ? 0 : count;
+    }
+
+    private void ensureTable() {
+        if (!tableReady) {
+            jdbcTemplate.execute(CREATE_TABLE_SQL);
+            tableReady = true;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package lk.sampath.leaderboard.repository;
+
+import lk.sampath.leaderboard.entity.ProjectKlocSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProjectKlocSnapshotRepository extends JpaRepository<ProjectKlocSnapshot, Integer> {
+    List<ProjectKlocSnapshot> findBySnapshotPeriod(LocalDate snapshotPeriod);
+
+    /**
+     * Latest snapshot of every project taken for the given period or before it
+     */
+    @Query("SELECT s FROM ProjectKlocSnapshot s " +
+            "WHERE s.snapshotPeriod = (SELECT MAX(s2.snapshotPeriod) FROM ProjectKlocSnapshot s2 " +
+            "WHERE s2.project = s.project AND s2.snapshotPeriod <= :period)")
+    List<ProjectKlocSnapshot> findLatestUpToPeriod(@Param("period") LocalDate period);
+}
@@ -2,6 +2,7 @@ package lk.sampath.leaderboard.repository;
 
 import lk.sampath.leaderboard.entity.Project;
 import lk.sampath.leaderboard.entity.ProjectRanking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -40,6 +41,10 @@ public interface ProjectRankingRepository extends JpaRepository<ProjectRanking,
     List<ProjectRanking> findByRankingPeriod(LocalDate period);
     Optional<ProjectRanking> findByProjectAndRankingPeriod(Project project, LocalDate rankingPeriod);
 
+    /**
+     * Keyset page of the rankings of one period, or of every period when period is null, ordered by id
+     */
+    @Query("SELECT pr FROM ProjectRanking pr JOIN FETCH pr.project " +
+            "WHERE (:period IS NULL OR pr.rankingPeriod = :period) AND pr.id > :afterId ORDER BY pr.id")
+    List<ProjectRanking> findPageAfter(@Param("period") LocalDate period, @Param("afterId") Integer afterId, Pageable pageable);
 }
-
-
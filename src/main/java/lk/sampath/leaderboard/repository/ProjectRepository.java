@@ -4,12 +4,14 @@ import lk.sampath.leaderboard.entity.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Integer> {
     Optional<Project> findByProjectKey(String projectKey);
+    List<Project> findByProjectKeyIn(Collection<String> projectKeys);
     List<Project> findByIsActiveTrue();
     long countByIsActiveTrue();
 }
@@ -0,0 +1,27 @@
+package lk.sampath.leaderboard.repository;
+
+import lk.sampath.leaderboard.entity.SyncCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, Integer> {
+    Optional<SyncCheckpoint> findByRunKeyAndProjectKey(String runKey, String projectKey);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SyncCheckpoint c WHERE c.runKey = :runKey")
+    int deleteByRunKey(@Param("runKey") String runKey);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SyncCheckpoint c WHERE c.updatedAt < :before")
+    int deleteStale(@Param("before") LocalDateTime before);
+}
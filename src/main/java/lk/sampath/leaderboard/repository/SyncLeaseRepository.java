@@ -0,0 +1,46 @@
+package lk.sampath.leaderboard.repository;
+
+import lk.sampath.leaderboard.entity.SyncLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncLeaseRepository extends JpaRepository<SyncLease, Integer> {
+    List<SyncLease> findByRunKey(String runKey);
+
+    List<SyncLease> findByRunKeyAndFinishedFalse(String runKey);
+
+    /**
+     * Claim an unfinished project whose lease has lapsed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncLease l SET l.owner = :owner, l.leaseUntil = :until, l.updatedAt = :now " +
+            "WHERE l.runKey = :runKey AND l.projectKey = :projectKey AND l.finished = false AND l.leaseUntil < :now")
+    int takeOver(@Param("runKey") String runKey, @Param("projectKey") String projectKey, @Param("owner") String owner,
+                 @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncLease l SET l.leaseUntil = :until, l.updatedAt = :now WHERE l.owner = :owner AND l.finished = false")
+    int renewAll(@Param("owner") String owner, @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncLease l SET l.finished = true, l.succeeded = :succeeded, l.leaseUntil = :now, l.updatedAt = :now " +
+            "WHERE l.runKey = :runKey AND l.projectKey = :projectKey AND l.owner = :owner")
+    int finish(@Param("runKey") String runKey, @Param("projectKey") String projectKey, @Param("owner") String owner,
+               @Param("succeeded") boolean succeeded, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SyncLease l WHERE l.updatedAt < :before")
+    int deleteStale(@Param("before") LocalDateTime before);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +22,7 @@ public interface SyncLogRepository extends JpaRepository<SyncLog, Integer> {
 
     @Query("SELECT s FROM SyncLog s WHERE s.project = :project AND s.status = 'SUCCESS' ORDER BY s.startTime DESC")
     Optional<SyncLog> findLastSuccessfulSync(@Param("project") Project project);
+
+    @Query("SELECT MAX(s.highWaterMark) FROM SyncLog s WHERE s.project = :project AND s.status = lk.sampath.leaderboard.entity.SyncLog.SyncStatus.SUCCESS")
+    Optional<LocalDateTime> findHighWaterMark(@Param("project") Project project);
 }
@@ -1,5 +1,6 @@
 package lk.sampath.leaderboard.scheduler;
 
+import lk.sampath.leaderboard.services.JobLockService;
 import lk.sampath.leaderboard.services.RankingCalculationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +20,7 @@ import java.time.LocalDate;
 public class RankingCalculationScheduler {
 
     private final RankingCalculationService rankingCalculationService;
+    private final JobLockService jobLockService;
 
     /**
      * Calculate rankings on the 1st day of each month at 3 AM
@@ -26,6 +28,10 @@ public class RankingCalculationScheduler {
      */
     @Scheduled(cron = "${sonarqube.ranking.cron:0 0 3 1 * ?}")
     public void scheduledMonthlyRankingCalculation() {
+        jobLockService.runLocked(JobLockService.Job.RANKING_CALCULATION, null, this::calculateRankings);
+    }
+
+    private void calculateRankings() {
         log.info("=== Starting scheduled monthly ranking calculation ===");
 
         try {
@@ -2,9 +2,12 @@ package lk.sampath.leaderboard.scheduler;
 
 
 import lk.sampath.leaderboard.dto.SyncResponse;
+import lk.sampath.leaderboard.services.JobLockService;
 import lk.sampath.leaderboard.services.SonarQubeSyncService;
+import lk.sampath.leaderboard.services.SyncLeaseService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -16,17 +19,27 @@ import org.springframework.stereotype.Component;
 public class SonarQubeSyncScheduler {
 
     private final SonarQubeSyncService syncService;
+    private final JobLockService jobLockService;
+
+    @Value("${sonarqube.sync.cron:0 0 2 2-31 * ?}")
+    private String cron;
 
     /**
      * Scheduled daily sync - configured via cron expression in application.yml
-     * Default: "0 0 2 * * ?" (2 AM daily)
+     * Default: "0 0 2 2-31 * ?" (2 AM daily except the 1st, when the monthly sync takes the sync lock)
+     * Nodes firing the same schedule share the run and split its projects
      */
-    @Scheduled(cron = "${sonarqube.sync.cron:0 0 2 * * ?}")
+    @Scheduled(cron = "${sonarqube.sync.cron:0 0 2 2-31 * ?}")
     public void scheduledSync() {
+        String runKey = SyncLeaseService.scheduledRunKey("sync", cron);
+        jobLockService.runLocked(JobLockService.Job.SONARQUBE_SYNC, runKey, () -> runSync(runKey));
+    }
+
+    private void runSync(String runKey) {
         log.info("=== Starting scheduled SonarQube sync ===");
 
         try {
-            SyncResponse response = syncService.syncAllProjects(false);
+            SyncResponse response = syncService.syncAllProjects(false, runKey);
 
             if (response.isSuccess()) {
                 SyncResponse.SyncStats stats = response.getStats();
@@ -34,6 +47,7 @@ public class SonarQubeSyncScheduler {
                 log.info("  - Projects: {}", stats.getProjectsProcessed());
                 log.info("  - Issues Created: {}", stats.getIssuesCreated());
                 log.info("  - Issues Updated: {}", stats.getIssuesUpdated());
+                log.info("  - Issues Unchanged: {}", stats.getIssuesSkipped());
                 log.info("  - Developers: {}", stats.getDevelopersCreated());
                 log.info("  - Duration: {}ms", stats.getDurationMs());
             } else {
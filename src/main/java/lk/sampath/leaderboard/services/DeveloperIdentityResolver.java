@@ -0,0 +1,146 @@
+package lk.sampath.leaderboard.services;
+
+import lk.sampath.leaderboard.client.SonarUserDirectory;
+import lk.sampath.leaderboard.dto.SonarUserSearchResponse;
+import lk.sampath.leaderboard.entity.Developer;
+import lk.sampath.leaderboard.repository.DeveloperRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Maps issue authors to Developer rows without a query per issue.
+ * All known authorKey -> id pairs are loaded once per sync; authors missing from
+ * that map are looked up together, and only authors that are new to the database
+ * are named from the cached SonarQube user directory and inserted.
+ * A reload builds a new map and swaps it in, so lookups running meanwhile keep using the previous one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeveloperIdentityResolver {
+
+    // Keeps IN lists well below database parameter limits
+    private static final int LOOKUP_BATCH_SIZE = 500;
+
+    private final DeveloperRepository developerRepository;
+    private final SonarUserDirectory userDirectory;
+
+    // authorKey -> id of every known author, null until first loaded
+    private final AtomicReference<Map<String, Integer>> idsByAuthorKey = new AtomicReference<>();
+
+    /**
+     * Reload every known author; called at the start of a sync or import
+     */
+    public synchronized void preload() {
+        Map<String, Integer> ids = new ConcurrentHashMap<>();
+        developerRepository.findAllAuthorKeyIds()
+                .forEach(row -> ids.put(row.getAuthorKey(), row.getId()));
+        idsByAuthorKey.set(ids);
+        log.debug("Loaded {} developer identities", ids.size());
+    }
+
+    /**
+     * Make sure every given author has a Developer row, creating the missing ones.
+     * Authors not yet known are first looked up with IN queries, since another worker
+     * or node may have created them since the preload.
+     */
+    public void resolveAll(Collection<String> authorKeys) {
+        resolveAll(ids(), authorKeys);
+    }
+
+    private void resolveAll(Map<String, Integer> ids, Collection<String> authorKeys) {
+        Set<String> unknown = new HashSet<>();
+        for (String authorKey : authorKeys) {
+            if (authorKey != null && !authorKey.isEmpty() && !ids.containsKey(authorKey)) {
+                unknown.add(authorKey);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(unknown);
+        for (int from = 0; from < keys.size(); from += LOOKUP_BATCH_SIZE) {
+            List<String> batch = keys.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, keys.size()));
+            for (Developer developer : developerRepository.findByAuthorKeyIn(batch)) {
+                ids.put(developer.getAuthorKey(), developer.getId());
+                unknown.remove(developer.getAuthorKey());
+            }
+        }
+
+        for (String authorKey : unknown) {
+            create(ids, authorKey);
+        }
+    }
+
+    /**
+     * Developer for an author, created if needed.
+     * Known authors are returned as references, so no SELECT is issued.
+     */
+    public Developer resolve(String authorKey) {
+        // One map throughout, so a concurrent reload cannot lose the id this call stores
+        Map<String, Integer> ids = ids();
+        Integer id = ids.get(authorKey);
+        if (id == null) {
+            resolveAll(ids, List.of(authorKey));
+            id = ids.get(authorKey);
+        }
+        return developerRepository.getReferenceById(id);
+    }
+
+    private void create(Map<String, Integer> ids, String authorKey) {
+        Developer developer = new Developer();
+        developer.setAuthorKey(authorKey);
+        developer.setIsActive(true);
+
+        Optional<SonarUserSearchResponse.User> user = userDirectory.findUser(authorKey);
+        developer.setDisplayName(user
+                .map(u -> (u.getName() != null && !u.getName().isBlank()) ? u.getName() : u.getLogin())
+                .orElse(authorKey));
+        user.map(SonarUserSearchResponse.User::getEmail)
+                .filter(this::looksLikeEmail)
+                .ifPresent(developer::setEmail);
+
+        try {
+            developer = developerRepository.save(developer);
+            log.debug("Created new developer: {} ({})", developer.getDisplayName(), authorKey);
+        } catch (DataIntegrityViolationException e) {
+            // Another worker created the same author concurrently
+            developer = developerRepository.findByAuthorKey(authorKey).orElseThrow(() -> e);
+        }
+        ids.put(authorKey, developer.getId());
+    }
+
+    private Map<String, Integer> ids() {
+        Map<String, Integer> ids = idsByAuthorKey.get();
+        if (ids == null) {
+            synchronized (this) {
+                ids = idsByAuthorKey.get();
+                if (ids == null) {
+                    preload();
+                    ids = idsByAuthorKey.get();
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Basic email validation to avoid treating non-email strings as emails returned by Sonar.
+     */
+    private boolean looksLikeEmail(String email) {
+        if (email == null) return false;
+        String trimmed = email.trim();
+        int at = trimmed.indexOf('@');
+        if (at <= 0 || at != trimmed.lastIndexOf('@')) return false;
+        if (trimmed.contains(" ")) return false;
+        int dot = trimmed.indexOf('.', at);
+        return dot > at + 1 && dot < trimmed.length() - 1;
+    }
+}
@@ -1,432 +1,486 @@
 package lk.sampath.leaderboard.services;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lk.sampath.leaderboard.client.SonarIssuesStreamReader;
+import lk.sampath.leaderboard.config.SonarQubeProperties;
 import lk.sampath.leaderboard.dto.ImportResponse;
+import lk.sampath.leaderboard.dto.RankingRecord;
 import lk.sampath.leaderboard.dto.SonarDevelopersResponse;
 import lk.sampath.leaderboard.dto.SonarIssuesSearchResponse;
 import lk.sampath.leaderboard.dto.SonarProjectSearchResponse;
+import lk.sampath.leaderboard.dto.mapper.NdjsonRecordMapper;
 import lk.sampath.leaderboard.entity.Developer;
-import lk.sampath.leaderboard.entity.Issue;
+import lk.sampath.leaderboard.entity.IndividualRanking;
 import lk.sampath.leaderboard.entity.Project;
+import lk.sampath.leaderboard.entity.ProjectRanking;
 import lk.sampath.leaderboard.repository.DeveloperRepository;
-import lk.sampath.leaderboard.repository.IssueRepository;
+import lk.sampath.leaderboard.repository.IndividualRankingRepository;
+import lk.sampath.leaderboard.repository.ProjectRankingRepository;
 import lk.sampath.leaderboard.repository.ProjectRepository;
+import lk.sampath.leaderboard.util.NdjsonReader;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 public class ImportFromJsonService {
 
-    @Autowired
-    private IssueRepository issueRepository;
-
     @Autowired
     private ProjectRepository projectRepository;
 
     @Autowired
     private DeveloperRepository developerRepository;
 
+    @Autowired
+    private IndividualRankingRepository individualRankingRepository;
+
+    @Autowired
+    private ProjectRankingRepository projectRankingRepository;
+
+    @Autowired
+    private NdjsonRecordMapper recordMapper;
+
     @Autowired
     private ObjectMapper objectMapper;
 
-    @Transactional
-    public ImportResponse importIssuesFromJson(MultipartFile file) {
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
+    @Autowired
+    private IssueIngestionPipeline ingestionPipeline;
 
-        try {
-            SonarIssuesSearchResponse response = objectMapper.readValue(
-                    file.getInputStream(),
-                    SonarIssuesSearchResponse.class
-            );
+    @Autowired
+    private IssueBulkImportService bulkImportService;
 
-            if (response.getIssues() == null || response.getIssues().isEmpty()) {
-                return new ImportResponse(false, "No issues found in JSON file", 0, null);
-            }
+    @Autowired
+    private SonarQubeProperties properties;
 
-            for (SonarIssuesSearchResponse.IssueDetail detail : response.getIssues()) {
-                try {
-                    Issue issue = new Issue();
-                    issue.setIssueKey(detail.getKey());
-
-                    // handle Optional<Project>
-                    Optional<Project> optProject = projectRepository.findByProjectKey(detail.getProject());
-                    Project project;
-                    if (optProject.isPresent()) {
-                        project = optProject.get();
-                    } else {
-                        project = Project.builder()
-                                .projectKey(detail.getProject())
-                                .projectName(detail.getProject())
-                                .isActive(true)
-                                .build();
-                        project = projectRepository.save(project);
-                    }
-                    issue.setProject(project);
-
-                    // handle Optional<Developer>
-                    if (detail.getAuthor() != null && !detail.getAuthor().isEmpty()) {
-                        Optional<Developer> optDev = developerRepository.findByAuthorKey(detail.getAuthor());
-                        Developer dev;
-                        if (optDev.isPresent()) {
-                            dev = optDev.get();
-                        } else {
-                            dev = Developer.builder()
-                                    .authorKey(detail.getAuthor())
-                                    .displayName(detail.getAuthor())
-                                    .isActive(true)
-                                    .build();
-                            dev = developerRepository.save(dev);
-                        }
-                        issue.setDeveloper(dev);
-                    }
-
-                    issue.setRuleKey(detail.getRule());
-                    issue.setSeverity(Issue.Severity.valueOf(detail.getSeverity()));
-                    issue.setIssueType(Issue.IssueType.valueOf(detail.getType()));
-                    issue.setStatus(Issue.IssueStatus.valueOf(detail.getStatus()));
-                    issue.setComponentPath(detail.getComponent());
-                    issue.setLineNumber(detail.getLine());
-                    issue.setMessage(detail.getMessage());
-                    issue.setEffortMinutes(parseEffort(detail.getEffort()));
-
-                    // parse creation/update as OffsetDateTime then convert to LocalDateTime on entity
-                    OffsetDateTime odtCreated = tryParseOffsetDateTime(detail.getCreationDate());
-                    if (odtCreated != null) {
-                        issue.setCreatedDate(odtCreated.toLocalDateTime());
-                    }
-                    OffsetDateTime odtUpdated = tryParseOffsetDateTime(detail.getUpdateDate());
-                    if (odtUpdated != null) {
-                        issue.setUpdatedDate(odtUpdated.toLocalDateTime());
-                    }
-
-                    issueRepository.save(issue);
-                    successCount++;
-                } catch (Exception e) {
-                    errors.add("Issue " + detail.getKey() + ": " + e.getMessage());
-                }
-            }
+    /**
+     * How issues are written: through the ingestion pipeline a chunk at a time, or staged and merged in bulk
+     */
+    public enum IssueImportMode {
+        PIPELINE, BULK
+    }
+
+    // Errors listed in one import response; the rest are only counted as failures
+    private static final int MAX_ERRORS = 100;
+
+    /**
+     * Reads the records of a document, handing them over in batches and reporting the ones it cannot read
+     */
+    @FunctionalInterface
+    private interface RecordFeed<T> {
+        void read(int batchSize, Consumer<List<T>> batches, Consumer<String> errors) throws IOException;
+    }
 
-            return new ImportResponse(
-                    successCount > 0,
-                    successCount + " issues imported",
-                    successCount,
-                    errors.isEmpty() ? null : errors
-            );
+    /**
+     * Saves a batch of records, reporting the ones it cannot save
+     *
+     * @return number of records saved
+     */
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        int write(List<T> records, Consumer<String> errors);
+    }
 
+    public ImportResponse importIssuesFromJson(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return importIssuesFromJson(inputStream);
         } catch (Exception e) {
             return new ImportResponse(false, "Import failed: " + e.getMessage(), 0, null);
         }
     }
 
-    @Transactional
+    /**
+     * Import a SonarQube issue search response (or an export of any size in the same shape) through the
+     * ingestion pipeline. The document is read token by token and fed to the pipeline a chunk at a time;
+     * the pipeline's bounded queues hold the reader back, so memory does not grow with the file.
+     * Projects and developers that are not known yet are created.
+     */
     public ImportResponse importIssuesFromJson(InputStream inputStream) {
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
+        return importIssuesFromJson(inputStream, IssueImportMode.PIPELINE);
+    }
 
-        try {
-            SonarIssuesSearchResponse response = objectMapper.readValue(
-                    inputStream,
-                    SonarIssuesSearchResponse.class
-            );
+    /**
+     * Import issues in the given mode. BULK suits large exports on MySQL or H2: the whole document is
+     * staged and merged with set-based SQL (see IssueBulkImportService).
+     */
+    public ImportResponse importIssuesFromJson(InputStream inputStream, IssueImportMode mode) {
+        if (mode == IssueImportMode.BULK) {
+            return bulkImportService.importIssues(inputStream);
+        }
 
-            if (response.getIssues() == null || response.getIssues().isEmpty()) {
-                return new ImportResponse(false, "No issues found in JSON content", 0, null);
-            }
+        return ingestIssues("JSON", pages -> {
+            SonarIssuesStreamReader.readBatches(inputStream, batchSize(), pages);
+            return true;
+        });
+    }
 
-            for (SonarIssuesSearchResponse.IssueDetail detail : response.getIssues()) {
-                try {
-                    Issue issue = new Issue();
-                    issue.setIssueKey(detail.getKey());
-
-                    // handle Optional<Project>
-                    Optional<Project> optProject = projectRepository.findByProjectKey(detail.getProject());
-                    Project project;
-                    if (optProject.isPresent()) {
-                        project = optProject.get();
-                    } else {
-                        project = Project.builder()
-                                .projectKey(detail.getProject())
-                                .projectName(detail.getProject())
-                                .isActive(true)
-                                .build();
-                        project = projectRepository.save(project);
-                    }
-                    issue.setProject(project);
-
-                    // handle Optional<Developer>
-                    if (detail.getAuthor() != null && !detail.getAuthor().isEmpty()) {
-                        Optional<Developer> optDev = developerRepository.findByAuthorKey(detail.getAuthor());
-                        Developer dev;
-                        if (optDev.isPresent()) {
-                            dev = optDev.get();
-                        } else {
-                            dev = Developer.builder()
-                                    .authorKey(detail.getAuthor())
-                                    .displayName(detail.getAuthor())
-                                    .isActive(true)
-                                    .build();
-                            dev = developerRepository.save(dev);
-                        }
-                        issue.setDeveloper(dev);
-                    }
-
-                    issue.setRuleKey(detail.getRule());
-                    issue.setSeverity(Issue.Severity.valueOf(detail.getSeverity()));
-                    issue.setIssueType(Issue.IssueType.valueOf(detail.getType()));
-                    issue.setStatus(Issue.IssueStatus.valueOf(detail.getStatus()));
-                    issue.setComponentPath(detail.getComponent());
-                    issue.setLineNumber(detail.getLine());
-                    issue.setMessage(detail.getMessage());
-
-                    // detail.getEffort may contain values like "10min", "1h" or numeric strings.
-                    // Always use parseEffort which handles both formats safely.
-                    issue.setEffortMinutes(parseEffort(detail.getEffort()));
-
-                    OffsetDateTime odtCreated = tryParseOffsetDateTime(
-                            firstNonNull(detail.getCreationDate(), detail.getCreationDate(), detail.getUpdateDate())
-                    );
-                    if (odtCreated != null) {
-                        issue.setCreatedDate(odtCreated.toLocalDateTime());
-                    }
-
-                    OffsetDateTime odtUpdated = tryParseOffsetDateTime(
-                            firstNonNull(detail.getUpdateDate(), detail.getUpdateDate(), detail.getUpdateDate())
-                    );
-                    if (odtUpdated != null) {
-                        issue.setUpdatedDate(odtUpdated.toLocalDateTime());
-                    }
-
-                    OffsetDateTime odtResolved = tryParseOffsetDateTime(
-                            firstNonNull(detail.getCloseDate(), detail.getCloseDate())
-                    );
-                    if (odtResolved != null) {
-                        issue.setResolvedDate(odtResolved.toLocalDateTime());
-                    }
-
-                    OffsetDateTime odtSonarCreated = tryParseOffsetDateTime(detail.getCreationDate());
-                    if (odtSonarCreated != null) {
-                        issue.setSonarCreatedAt(odtSonarCreated.toLocalDateTime());
-                    }
-                    OffsetDateTime odtSonarUpdated = tryParseOffsetDateTime(detail.getUpdateDate());
-                    if (odtSonarUpdated != null) {
-                        issue.setSonarUpdatedAt(odtSonarUpdated.toLocalDateTime());
-                    }
-
-                    issueRepository.save(issue);
-                    successCount++;
-                } catch (Exception e) {
-                    errors.add("Issue " + detail.getKey() + ": " + e.getMessage());
-                }
+    /**
+     * Import issues from newline-delimited JSON, one SonarQube issue per line. A split file is parsed
+     * on several threads at once; lines that cannot be parsed are reported and skipped.
+     */
+    public ImportResponse importIssuesFromNdjson(NdjsonReader reader, IssueImportMode mode) {
+        ObjectReader issueReader = objectMapper.readerFor(SonarIssuesSearchResponse.IssueDetail.class);
+        List<String> lineErrors = Collections.synchronizedList(new ArrayList<>());
+        IssueIngestionPipeline.IssueSource source = pages -> {
+            reader.read(issueReader, batchSize(), pages, error -> addError(lineErrors, error));
+            return true;
+        };
+
+        ImportResponse response = mode == IssueImportMode.BULK
+                ? bulkImportService.importIssues(source)
+                : ingestIssues("NDJSON", source);
+        if (!lineErrors.isEmpty()) {
+            List<String> errors = new ArrayList<>(lineErrors);
+            if (response.getErrors() != null) {
+                errors.addAll(response.getErrors());
             }
+            response.setErrors(errors);
+        }
+        return response;
+    }
+
+    private ImportResponse ingestIssues(String format, IssueIngestionPipeline.IssueSource source) {
+        IssueIngestionPipeline.IngestionResult result = ingestionPipeline.ingest(format + " import", null, source);
 
-            return new ImportResponse(
-                    successCount > 0,
-                    successCount + " issues imported",
-                    successCount,
-                    errors.isEmpty() ? null : errors
-            );
+        List<String> errors = result.getErrors();
+        if (result.getReceived() == 0) {
+            return result.isComplete()
+                    ? new ImportResponse(false, "No issues found in " + format + " content", 0, null)
+                    : new ImportResponse(false, "Import failed: " + String.join("; ", errors), 0, null);
+        }
+
+        int successCount = result.getWritten();
+        return new ImportResponse(
+                successCount > 0,
+                successCount + " issues imported",
+                successCount,
+                errors.isEmpty() ? null : new ArrayList<>(errors)
+        );
+    }
 
+    public ImportResponse importDevelopersFromJson(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return importDevelopersFromJson(inputStream);
         } catch (Exception e) {
             return new ImportResponse(false, "Import failed: " + e.getMessage(), 0, null);
         }
     }
 
-    @Transactional
-    public ImportResponse importDevelopersFromJson(MultipartFile file) {
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
+    /**
+     * Import the users of a SonarQube user search response, streamed and saved in batches.
+     * Known developers are updated, so the same users may be imported again or by several imports at once.
+     */
+    public ImportResponse importDevelopersFromJson(InputStream inputStream) {
+        return importRecords("developers", "JSON", jsonArray(inputStream, "users", SonarDevelopersResponse.Developer.class),
+                this::saveDevelopers);
+    }
 
-        try {
-            SonarDevelopersResponse response = objectMapper.readValue(
-                    file.getInputStream(),
-                    SonarDevelopersResponse.class
-            );
+    /**
+     * Import developers from newline-delimited JSON, one SonarQube user per line
+     */
+    public ImportResponse importDevelopersFromNdjson(NdjsonReader reader) {
+        return importRecords("developers", "NDJSON", ndjson(reader, SonarDevelopersResponse.Developer.class),
+                this::saveDevelopers);
+    }
 
-            if (response.getUsers() == null || response.getUsers().isEmpty()) {
-                return new ImportResponse(false, "No developers found in JSON file", 0, null);
-            }
+    public ImportResponse importProjectsFromJson(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return importProjectsFromJson(inputStream);
+        } catch (Exception e) {
+            return new ImportResponse(false, "Import failed: " + e.getMessage(), 0, null);
+        }
+    }
 
-            for (SonarDevelopersResponse.Developer dev : response.getUsers()) {
-                try {
-                    Developer developer = Developer.builder()
-                            .authorKey(dev.getLogin())
-                            .displayName(dev.getName())
-                            .email(dev.getEmail())
-                            .isActive(dev.isActive())
-                            .build();
-
-                    developerRepository.save(developer);
-                    successCount++;
-                } catch (Exception e) {
-                    errors.add("Developer " + dev.getLogin() + ": " + e.getMessage());
-                }
-            }
+    /**
+     * Import the components of a SonarQube project search response, streamed and saved in batches.
+     * Known projects are renamed rather than inserted again.
+     */
+    public ImportResponse importProjectsFromJson(InputStream inputStream) {
+        return importRecords("projects", "JSON",
+                jsonArray(inputStream, "components", SonarProjectSearchResponse.Component.class), this::saveProjects);
+    }
 
-            return new ImportResponse(
-                    successCount > 0,
-                    successCount + " developers imported",
-                    successCount,
-                    errors.isEmpty() ? null : errors
-            );
+    /**
+     * Import projects from newline-delimited JSON, one SonarQube component per line
+     */
+    public ImportResponse importProjectsFromNdjson(NdjsonReader reader) {
+        return importRecords("projects", "NDJSON", ndjson(reader, SonarProjectSearchResponse.Component.class),
+                this::saveProjects);
+    }
 
-        } catch (Exception e) {
-            return new ImportResponse(false, "Import failed: " + e.getMessage(), 0, null);
+    /**
+     * Import monthly rankings from newline-delimited JSON as written by the NDJSON export.
+     * A developer's or project's ranking for a month is replaced; the developer or project must exist.
+     */
+    public ImportResponse importRankingsFromNdjson(NdjsonReader reader) {
+        return importRecords("rankings", "NDJSON", ndjson(reader, RankingRecord.class), this::saveRankings);
+    }
+
+    private int saveDevelopers(List<SonarDevelopersResponse.Developer> users, Consumer<String> errors) {
+        return saveBatch(users, this::toDevelopers, dev -> "Developer " + dev.getLogin(), developerRepository, errors);
+    }
+
+    private int saveProjects(List<SonarProjectSearchResponse.Component> components, Consumer<String> errors) {
+        return saveBatch(components, this::toProjects, component -> "Project " + component.getKey(),
+                projectRepository, errors);
+    }
+
+    /**
+     * Developer rows for a batch of users: stored ones updated, new ones built; one per login
+     */
+    private List<Developer> toDevelopers(List<SonarDevelopersResponse.Developer> users) {
+        Map<String, Developer> existing = new HashMap<>();
+        developerRepository.findByAuthorKeyIn(users.stream().map(SonarDevelopersResponse.Developer::getLogin)
+                        .filter(Objects::nonNull).toList())
+                .forEach(developer -> existing.put(developer.getAuthorKey(), developer));
+
+        Map<String, Developer> developers = new LinkedHashMap<>();
+        for (SonarDevelopersResponse.Developer user : users) {
+            if (user.getLogin() == null || user.getLogin().isEmpty()) {
+                continue;
+            }
+            Developer developer = developers.computeIfAbsent(user.getLogin(), login -> existing.getOrDefault(login,
+                    Developer.builder().authorKey(login).build()));
+            developer.setDisplayName(user.getName());
+            developer.setEmail(user.getEmail());
+            developer.setIsActive(user.isActive());
         }
+        return new ArrayList<>(developers.values());
     }
 
-    @Transactional
-    public ImportResponse importDevelopersFromJson(InputStream inputStream) {
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
-        try {
-            SonarDevelopersResponse response = objectMapper.readValue(inputStream, SonarDevelopersResponse.class);
-            if (response.getUsers() == null || response.getUsers().isEmpty()) {
-                return new ImportResponse(false, "No developers found in JSON content", 0, null);
+    /**
+     * Project rows for a batch of components: stored ones renamed, new ones built; one per key
+     */
+    private List<Project> toProjects(List<SonarProjectSearchResponse.Component> components) {
+        Map<String, Project> existing = new HashMap<>();
+        projectRepository.findByProjectKeyIn(components.stream().map(SonarProjectSearchResponse.Component::getKey)
+                        .filter(Objects::nonNull).toList())
+                .forEach(project -> existing.put(project.getProjectKey(), project));
+
+        Map<String, Project> projects = new LinkedHashMap<>();
+        for (SonarProjectSearchResponse.Component component : components) {
+            if (component.getKey() == null || component.getKey().isEmpty()) {
+                continue;
             }
-            for (SonarDevelopersResponse.Developer dev : response.getUsers()) {
-                try {
-                    Developer developer = Developer.builder()
-                            .authorKey(dev.getLogin())
-                            .displayName(dev.getName())
-                            .email(dev.getEmail())
-                            .isActive(dev.isActive())
-                            .build();
-                    developerRepository.save(developer);
-                    successCount++;
-                } catch (Exception e) {
-                    errors.add("Developer " + dev.getLogin() + ": " + e.getMessage());
+            Project project = projects.computeIfAbsent(component.getKey(), key -> existing.getOrDefault(key,
+                    Project.builder().projectKey(key).isActive(true).build()));
+            project.setProjectName(component.getName() != null ? component.getName() : component.getKey());
+        }
+        return new ArrayList<>(projects.values());
+    }
+
+    /**
+     * Save a batch of rankings, updating the stored ranking of the same developer or project and month
+     */
+    private int saveRankings(List<RankingRecord> records, Consumer<String> errors) {
+        Map<String, Developer> developers = new HashMap<>();
+        developerRepository.findByAuthorKeyIn(records.stream().map(RankingRecord::getDeveloper)
+                        .filter(Objects::nonNull).toList())
+                .forEach(developer -> developers.put(developer.getAuthorKey(), developer));
+        Map<String, Project> projects = new HashMap<>();
+        projectRepository.findByProjectKeyIn(records.stream().map(RankingRecord::getProject)
+                        .filter(Objects::nonNull).toList())
+                .forEach(project -> projects.put(project.getProjectKey(), project));
+
+        // One ranking per developer or project and month; a later record replaces an earlier one
+        Map<String, IndividualRanking> individual = new LinkedHashMap<>();
+        Map<String, ProjectRanking> project = new LinkedHashMap<>();
+        for (RankingRecord record : records) {
+            if (record.getPeriod() == null) {
+                errors.accept(rankingLabel(record) + ": no period");
+            } else if (record.getDeveloper() != null) {
+                Developer developer = developers.get(record.getDeveloper());
+                if (developer == null) {
+                    errors.accept(rankingLabel(record) + ": unknown developer");
+                    continue;
                 }
+                IndividualRanking ranking = individual.computeIfAbsent(record.getDeveloper() + "@" + record.getPeriod(),
+                        key -> individualRankingRepository.findByDeveloperAndRankingPeriod(developer, record.getPeriod())
+                                .orElseGet(() -> IndividualRanking.builder().developer(developer).build()));
+                recordMapper.apply(record, ranking);
+            } else if (record.getProject() != null) {
+                Project rankedProject = projects.get(record.getProject());
+                if (rankedProject == null) {
+                    errors.accept(rankingLabel(record) + ": unknown project");
+                    continue;
+                }
+                ProjectRanking ranking = project.computeIfAbsent(record.getProject() + "@" + record.getPeriod(),
+                        key -> projectRankingRepository.findByProjectAndRankingPeriod(rankedProject, record.getPeriod())
+                                .orElseGet(() -> ProjectRanking.builder().project(rankedProject).build()));
+                recordMapper.apply(record, ranking);
+            } else {
+                errors.accept("Ranking without a developer or project");
             }
-            return new ImportResponse(successCount > 0, successCount + " developers imported", successCount, errors.isEmpty() ? null : errors);
-        } catch (Exception e) {
-            return new ImportResponse(false, "Import failed: " + e.getMessage(), 0, null);
         }
+        return saveRankings("developer", individual.values(), individualRankingRepository, errors)
+                + saveRankings("project", project.values(), projectRankingRepository, errors);
     }
 
-    @Transactional
-    public ImportResponse importProjectsFromJson(MultipartFile file) {
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
-
+    private static <E> int saveRankings(String owner, Collection<E> rankings, JpaRepository<E, ?> repository,
+                                        Consumer<String> errors) {
+        if (rankings.isEmpty()) {
+            return 0;
+        }
         try {
-            SonarProjectSearchResponse response = objectMapper.readValue(
-                    file.getInputStream(),
-                    SonarProjectSearchResponse.class
-            );
+            return repository.saveAll(rankings).size();
+        } catch (DataAccessException e) {
+            errors.accept(rankings.size() + " " + owner + " rankings: " + e.getMostSpecificCause().getMessage());
+            return 0;
+        }
+    }
 
-            if (response.getComponents() == null || response.getComponents().isEmpty()) {
-                return new ImportResponse(false, "No projects found in JSON file", 0, null);
+    private static String rankingLabel(RankingRecord record) {
+        return record.getDeveloper() != null ? "Ranking of developer " + record.getDeveloper() + " for " + record.getPeriod()
+                : "Ranking of project " + record.getProject() + " for " + record.getPeriod();
+    }
+
+    /**
+     * Read the records of a document and save them a batch per transaction, so neither the document nor
+     * the persistence context grows with the file. Batches of a split NDJSON file arrive on several threads.
+     */
+    private <T> ImportResponse importRecords(String kind, String format, RecordFeed<T> feed, BatchWriter<T> writer) {
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger saved = new AtomicInteger();
+        Consumer<String> error = message -> addError(errors, message);
+        try {
+            feed.read(batchSize(), batch -> {
+                received.addAndGet(batch.size());
+                saved.addAndGet(writer.write(batch, error));
+            }, error);
+        } catch (Exception e) {
+            if (received.get() == 0) {
+                return new ImportResponse(false, "Import failed: " + e.getMessage(), 0, errors.isEmpty() ? null : errors);
             }
+            addError(errors, "Import stopped after " + received.get() + " " + kind + ": " + e.getMessage());
+        }
+
+        if (received.get() == 0) {
+            return new ImportResponse(false, "No " + kind + " found in " + format + " content", 0,
+                    errors.isEmpty() ? null : errors);
+        }
+        int successCount = saved.get();
+        return new ImportResponse(successCount > 0, successCount + " " + kind + " imported", successCount,
+                errors.isEmpty() ? null : new ArrayList<>(errors));
+    }
+
+    private <T> RecordFeed<T> jsonArray(InputStream inputStream, String arrayField, Class<T> type) {
+        return (batchSize, batches, errors) -> readArray(inputStream, arrayField, type, batchSize, batches);
+    }
+
+    private <T> RecordFeed<T> ndjson(NdjsonReader reader, Class<T> type) {
+        ObjectReader recordReader = objectMapper.readerFor(type);
+        return (batchSize, batches, errors) -> reader.read(recordReader, batchSize, batches, errors);
+    }
 
-            for (SonarProjectSearchResponse.Component component : response.getComponents()) {
+    private <T, E> int saveBatch(List<T> records, Function<List<T>, List<E>> toEntities, Function<T, String> label,
+                                 JpaRepository<E, ?> repository, Consumer<String> errors) {
+        try {
+            return repository.saveAll(toEntities.apply(records)).size();
+        } catch (DataAccessException e) {
+            // Save one by one to report the records that fail; entities are rebuilt since the batch assigned ids
+            int saved = 0;
+            for (T record : records) {
                 try {
-                    Project project = Project.builder()
-                            .projectKey(component.getKey())
-                            .projectName(component.getName())
-                            .isActive(true)
-                            .build();
-
-                    projectRepository.save(project);
-                    successCount++;
-                } catch (Exception e) {
-                    errors.add("Project " + component.getKey() + ": " + e.getMessage());
+                    saved += saveRecord(record, toEntities, repository);
+                } catch (DataAccessException recordError) {
+                    errors.accept(label.apply(record) + ": " + recordError.getMostSpecificCause().getMessage());
                 }
             }
-
-            return new ImportResponse(
-                    successCount > 0,
-                    successCount + " projects imported",
-                    successCount,
-                    errors.isEmpty() ? null : errors
-            );
-
-        } catch (Exception e) {
-            return new ImportResponse(false, "Import failed: " + e.getMessage(), 0, null);
+            return saved;
         }
     }
 
-    @Transactional
-    public ImportResponse importProjectsFromJson(InputStream inputStream) {
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
+    private <T, E> int saveRecord(T record, Function<List<T>, List<E>> toEntities, JpaRepository<E, ?> repository) {
         try {
-            SonarProjectSearchResponse response = objectMapper.readValue(inputStream, SonarProjectSearchResponse.class);
-            if (response.getComponents() == null || response.getComponents().isEmpty()) {
-                return new ImportResponse(false, "No projects found in JSON content", 0, null);
+            return repository.saveAll(toEntities.apply(List.of(record))).size();
+        } catch (DataIntegrityViolationException e) {
+            // Inserted by a concurrent import since it was looked up: looked up again, it is now an update
+            return repository.saveAll(toEntities.apply(List.of(record))).size();
+        }
+    }
+
+    /**
+     * Read the elements of the array held by the named top-level field (or of a top-level array)
+     * one at a time, handing them over in batches
+     */
+    private <T> void readArray(InputStream inputStream, String arrayField, Class<T> type, int batchSize,
+                               Consumer<List<T>> batches) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                readElements(parser, type, batchSize, batches);
+                return;
             }
-            for (SonarProjectSearchResponse.Component component : response.getComponents()) {
-                try {
-                    Project project = Project.builder()
-                            .projectKey(component.getKey())
-                            .projectName(component.getName())
-                            .isActive(true)
-                            .build();
-
-                    projectRepository.save(project);
-                    successCount++;
-                } catch (Exception e) {
-                    errors.add("Project " + component.getKey() + ": " + e.getMessage());
+            if (first != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object or array");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (arrayField.equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    readElements(parser, type, batchSize, batches);
+                } else {
+                    parser.skipChildren();
                 }
             }
-            return new ImportResponse(successCount > 0, successCount + " projects imported", successCount, errors.isEmpty() ? null : errors);
-        } catch (Exception e) {
-            return new ImportResponse(false, "Import failed: " + e.getMessage(), 0, null);
         }
     }
 
-    private OffsetDateTime tryParseOffsetDateTime(String text) {
-        if (text == null || text.isEmpty()) return null;
-        DateTimeFormatter[] fmts = new DateTimeFormatter[] {
-                DateTimeFormatter.ISO_OFFSET_DATE_TIME,
-                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ")
-        };
-        for (DateTimeFormatter fmt : fmts) {
-            try {
-                return OffsetDateTime.parse(text, fmt);
-            } catch (Exception ignored) {
+    private static <T> void readElements(JsonParser parser, Class<T> type, int batchSize,
+                                         Consumer<List<T>> batches) throws IOException {
+        List<T> batch = new ArrayList<>(batchSize);
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JsonParseException(parser, "Unexpected end of array");
             }
-        }
-        // try inserting colon into offset if missing (e.g. -0500 -> -05:00)
-        if (text.matches(".*[+-]\\d{4}$")) {
-            String t = text.substring(0, text.length() - 2) + ":" + text.substring(text.length() - 2);
-            try {
-                return OffsetDateTime.parse(t, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-            } catch (Exception ignored) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            batch.add(parser.readValueAs(type));
+            if (batch.size() == batchSize) {
+                batches.accept(batch);
+                batch = new ArrayList<>(batchSize);
             }
         }
-        return null;
+        if (!batch.isEmpty()) {
+            batches.accept(batch);
+        }
     }
 
-    private String firstNonNull(String... vals) {
-        if (vals == null) return null;
-        for (String v : vals) if (v != null && !v.isEmpty()) return v;
-        return null;
+    private int batchSize() {
+        return Math.max(1, properties.getSync().getChunkSize());
     }
 
-    private Integer parseEffort(String effort) {
-        if (effort == null || effort.isEmpty()) return 0;
-        int minutes = 0;
-        String[] parts = effort.split(" ");
-        for (String part : parts) {
-            if (part.endsWith("min")) {
-                minutes += Integer.parseInt(part.replace("min", ""));
-            } else if (part.endsWith("h")) {
-                minutes += Integer.parseInt(part.replace("h", "")) * 60;
+    private static void addError(List<String> errors, String error) {
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
             }
         }
-        return minutes;
-    }}
-
+    }
+}
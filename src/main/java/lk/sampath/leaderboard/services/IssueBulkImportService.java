@@ -0,0 +1,253 @@
+package lk.sampath.leaderboard.services;
+
+import lk.sampath.leaderboard.client.SonarFieldCodec;
+import lk.sampath.leaderboard.client.SonarIssuesStreamReader;
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.dto.ImportResponse;
+import lk.sampath.leaderboard.dto.SonarIssuesSearchResponse;
+import lk.sampath.leaderboard.repository.IssueStagingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bulk issue import for large exports: the issues are parsed into a CSV file, loaded into issue_staging
+ * in one statement, and merged into projects, developers and issues with a handful of set-based statements
+ * instead of a write per chunk. Unknown authors become developers named after their login, without the
+ * SonarQube user lookup the pipeline makes. Merged issues have no content hash until they are next synced.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IssueBulkImportService {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Rows inserted concurrently by another import make an insert fail; it is retried with fresh ids
+    private static final int INSERT_ROUNDS = 3;
+
+    private final IssueStagingRepository stagingRepository;
+    private final SonarQubeProperties properties;
+
+    @FunctionalInterface
+    private interface StagedInsert {
+        int insert(String loadId, int firstId, int count);
+    }
+
+    public boolean isSupported() {
+        return stagingRepository.dialect() != IssueStagingRepository.Dialect.UNSUPPORTED;
+    }
+
+    public ImportResponse importIssues(InputStream inputStream) {
+        return importIssues(pages -> {
+            SonarIssuesStreamReader.readBatches(inputStream, Math.max(1, properties.getSync().getChunkSize()), pages);
+            return true;
+        });
+    }
+
+    /**
+     * Import the issues of any source; its pages may be handed over from several threads at once
+     */
+    public ImportResponse importIssues(IssueIngestionPipeline.IssueSource source) {
+        if (!isSupported()) {
+            return new ImportResponse(false, "Bulk import needs MySQL, MariaDB or H2", 0, null);
+        }
+
+        String loadId = UUID.randomUUID().toString();
+        List<String> errors = new ArrayList<>();
+        Path file = null;
+        long start = System.nanoTime();
+        try {
+            Path dir = Files.createDirectories(Path.of(properties.getSync().getBulkLoadDir()));
+            file = Files.createTempFile(dir, "issues-", ".csv");
+            int[] rows = writeStagingFile(source, file, loadId);
+            if (rows[1] > 0) {
+                errors.add(rows[1] + " issues without a key");
+            }
+            if (rows[0] == 0) {
+                return rows[1] == 0
+                        ? new ImportResponse(false, "No issues found in JSON content", 0, null)
+                        : new ImportResponse(false, "Import failed: " + errors.get(0), 0, errors);
+            }
+            long parsed = System.nanoTime();
+
+            stagingRepository.load(file);
+            int staged = stagingRepository.countStaged(loadId);
+            int withoutProject = stagingRepository.countWithoutProject(loadId);
+            if (withoutProject > 0) {
+                errors.add(withoutProject + " issues without a project key");
+            }
+            long loaded = System.nanoTime();
+
+            int projects = insertMissing("projects", loadId, stagingRepository::countNewProjects,
+                    stagingRepository::insertNewProjects, errors);
+            int developers = insertMissing("developers", loadId, stagingRepository::countNewDevelopers,
+                    stagingRepository::insertNewDevelopers, errors);
+            int updated = stagingRepository.updateExistingIssues(loadId);
+            int created = insertMissing("issues", loadId, stagingRepository::countNewIssues,
+                    stagingRepository::insertNewIssues, errors);
+
+            log.info("Bulk import {}: {} issues read ({} duplicates), {} created, {} updated, {} projects and {} "
+                            + "developers created; parse {} ms, load {} ms, merge {} ms", loadId, rows[0],
+                    rows[0] - staged, created, updated, projects, developers, (parsed - start) / 1_000_000,
+                    (loaded - parsed) / 1_000_000, (System.nanoTime() - loaded) / 1_000_000);
+
+            int successCount = created + updated;
+            return new ImportResponse(successCount > 0, successCount + " issues imported", successCount,
+                    errors.isEmpty() ? null : errors);
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            log.error("Bulk import {} failed", loadId, e);
+            return new ImportResponse(false, "Import failed: " + e.getMessage(), 0, List.of(e.getMessage()));
+        } finally {
+            cleanUp(loadId, file);
+        }
+    }
+
+    /**
+     * Write the issues of the source as staging rows, normalised as the pipeline would store them
+     *
+     * @return rows written and issues skipped for having no key
+     */
+    private int[] writeStagingFile(IssueIngestionPipeline.IssueSource source, Path file, String loadId)
+            throws IOException {
+        int[] rows = new int[2];
+        String nullField = stagingRepository.nullField();
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            source.feed(batch -> {
+                // A batch is written as a block of rows, in whatever order concurrent batches arrive
+                synchronized (out) {
+                    try {
+                        for (SonarIssuesSearchResponse.IssueDetail detail : batch) {
+                            if (detail.getKey() == null || detail.getKey().isEmpty()) {
+                                rows[1]++;
+                                continue;
+                            }
+                            writeRow(out, nullField, loadId, rows[0]++, detail);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        return rows;
+    }
+
+    private static void writeRow(Writer out, String nullField, String loadId, int rowNo,
+                                 SonarIssuesSearchResponse.IssueDetail detail) throws IOException {
+        field(out, nullField, loadId);
+        out.write(',');
+        field(out, nullField, detail.getKey());
+        out.write(',');
+        out.write(Integer.toString(rowNo));
+        out.write(',');
+        field(out, nullField, detail.getProject());
+        out.write(',');
+        field(out, nullField, detail.getAuthor());
+        out.write(',');
+        field(out, nullField, detail.getRule());
+        out.write(',');
+        field(out, nullField, SonarFieldCodec.severity(detail.getSeverity()).name());
+        out.write(',');
+        field(out, nullField, SonarFieldCodec.issueType(detail.getType()).name());
+        out.write(',');
+        field(out, nullField, SonarFieldCodec.status(detail.getStatus()).name());
+        out.write(',');
+        field(out, nullField, detail.getComponent());
+        out.write(',');
+        field(out, nullField, detail.getLine() != null ? detail.getLine().toString() : null);
+        out.write(',');
+        field(out, nullField, detail.getMessage());
+        out.write(',');
+        out.write(Integer.toString(SonarFieldCodec.effortMinutes(detail.getEffort())));
+        out.write(',');
+        field(out, nullField, timestamp(detail.getCreationDate()));
+        out.write(',');
+        field(out, nullField, timestamp(detail.getUpdateDate()));
+        out.write(',');
+        field(out, nullField, timestamp(detail.getCloseDate()));
+        out.write('\n');
+    }
+
+    /**
+     * A quoted field with backslash escapes, or the database's NULL field
+     */
+    private static void field(Writer out, String nullField, String value) throws IOException {
+        if (value == null) {
+            out.write(nullField);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static String timestamp(String text) {
+        LocalDateTime dateTime = SonarFieldCodec.localDateTime(text);
+        return dateTime != null ? TIMESTAMP.format(dateTime) : null;
+    }
+
+    /**
+     * Insert the staged rows of a table that do not exist yet, numbering them from a reserved block of ids
+     */
+    private int insertMissing(String table, String loadId, ToIntFunction<String> countMissing, StagedInsert insert,
+                              List<String> errors) {
+        int inserted = 0;
+        int missing = countMissing.applyAsInt(loadId);
+        for (int round = 0; round < INSERT_ROUNDS && missing > 0; round++) {
+            int firstId = stagingRepository.reserveIds(table, missing);
+            try {
+                inserted += insert.insert(loadId, firstId, missing);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Bulk insert into {} raced another import, retrying: {}", table, e.getMessage());
+            }
+            missing = countMissing.applyAsInt(loadId);
+        }
+        if (missing > 0) {
+            errors.add(missing + " " + table + " could not be inserted");
+        }
+        return inserted;
+    }
+
+    private void cleanUp(String loadId, Path file) {
+        try {
+            stagingRepository.delete(loadId);
+        } catch (DataAccessException e) {
+            log.warn("Could not remove staged rows of bulk import {}: {}", loadId, e.getMessage());
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete bulk import file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+}
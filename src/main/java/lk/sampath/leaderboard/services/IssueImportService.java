@@ -35,9 +35,8 @@ public class IssueImportService {
     private final ProjectRepository projectRepository;
     private final DeveloperRepository developerRepository;
     private final IssueRepository issueRepository;
-
-    @Value("${sonarqube.sync.request-delay-ms:100}")
-    private long requestDelayMs;
+    private final DeveloperIdentityResolver developerResolver;
+    private final IssueIngestionPipeline ingestionPipeline;
 
     @Value("${sonarqube.sync.historical-days:90}")
     private int historicalDays;
@@ -239,86 +238,36 @@ public class IssueImportService {
      * @param project Project this issue belongs to
      * @return true if issue was created (new), false if updated (existing)
      */
-    @Transactional
     public boolean importSingleIssue(SonarIssuesSearchResponse.IssueDetail issueDetail,
                                      Project project) {
+        return importIssues(List.of(issueDetail), project) == 1;
+    }
 
-        // Find existing issue or create new
-        Issue issue = issueRepository.findByIssueKey(issueDetail.getKey())
-                .orElse(new Issue());
-
-        boolean isNew = issue.getId() == null;
-
-        // Map API data to entity
-        issue.setIssueKey(issueDetail.getKey());
-        issue.setProject(project);
-        issue.setRuleKey(issueDetail.getRule());
-        issue.setSeverity(parseSeverity(issueDetail.getSeverity()));
-        issue.setIssueType(parseIssueType(issueDetail.getType()));
-        issue.setStatus(parseStatus(issueDetail.getStatus()));
-        issue.setComponentPath(issueDetail.getComponent());
-        issue.setLineNumber(issueDetail.getLine());
-        issue.setMessage(issueDetail.getMessage());
-        issue.setEffortMinutes(parseEffort(issueDetail.getEffort()));
-
-        // Parse dates
-        issue.setCreatedDate(parseDateTime(issueDetail.getCreationDate()));
-        issue.setUpdatedDate(parseDateTime(issueDetail.getUpdateDate()));
-        issue.setResolvedDate(parseDateTime(issueDetail.getCloseDate()));
-
-        // Handle developer/author
-        if (issueDetail.getAuthor() != null && !issueDetail.getAuthor().isEmpty()) {
-            Developer developer = getOrCreateDeveloper(issueDetail.getAuthor());
-            issue.setDeveloper(developer);
-        }
-
-        // Save to database
-        issueRepository.save(issue);
+    /**
+     * Import a page of issues from SonarQube through the ingestion pipeline
+     *
+     * @param issueDetails Issue details from API
+     * @param project Project the issues belong to
+     * @return number of issues created (new); the rest were updated or unchanged
+     */
+    public int importIssues(List<SonarIssuesSearchResponse.IssueDetail> issueDetails, Project project) {
+        IssueIngestionPipeline.IngestionResult result = ingestionPipeline.ingest(
+                "project " + project.getProjectKey(), project, pages -> {
+                    pages.accept(issueDetails);
+                    return true;
+                });
 
-        log.trace("{} issue: {} (Type: {}, Severity: {})",
-                isNew ? "Created" : "Updated",
-                issueDetail.getKey(),
-                issueDetail.getType(),
-                issueDetail.getSeverity());
+        log.trace("Imported {} issues for project {} ({} created, {} unchanged)",
+                result.getWritten(), project.getProjectKey(), result.getCreated(), result.getSkipped());
 
-        return isNew;
+        return result.getCreated();
     }
 
     /**
      * Get existing developer or create new one
      */
     private Developer getOrCreateDeveloper(String authorKey) {
-        return developerRepository.findByAuthorKey(authorKey)
-                .orElseGet(() -> {
-                    Developer developer = new Developer();
-                    developer.setAuthorKey(authorKey);
-
-                    // Try to fetch full user details (name + email) from SonarQube
-                    Optional<lk.sampath.leaderboard.dto.SonarUserSearchResponse.User> userOpt =
-                            sonarQubeClient.fetchUserDetails(authorKey);
-
-                    String displayName = userOpt
-                            .map(u -> (u.getName() != null && !u.getName().isBlank()) ? u.getName() : u.getLogin())
-                            .orElse(formatDisplayName(authorKey));
-                    developer.setDisplayName(displayName);
-
-                    Developer finalDeveloper = developer;
-                    userOpt.map(lk.sampath.leaderboard.dto.SonarUserSearchResponse.User::getEmail)
-                            .filter(e -> e != null && !e.isBlank())
-                            .filter(this::looksLikeEmail)
-                            .ifPresentOrElse(email -> {
-                                finalDeveloper.setEmail(email);
-                                log.debug("Set email for developer {} -> {}", displayName, email);
-                            }, () -> log.debug("No valid email for authorKey {} (sonar result: {}). Skipping email set.", authorKey, userOpt.map(u -> u.getEmail()).orElse(null)));
-
-                    developer.setIsActive(true);
-
-                    developer = developerRepository.save(developer);
-                    log.debug("Created new developer: {} ({})",
-                            developer.getDisplayName(), authorKey);
-
-                    return developer;
-                });
+        return developerResolver.resolve(authorKey);
     }
 
     /**
@@ -343,112 +292,6 @@ public class IssueImportService {
         return null;
     }
 
-    /**
-     * Format author key into display name
-     * Example: "john.doe" -> "John Doe"
-     */
-    private String formatDisplayName(String authorKey) {
-        if (authorKey == null || authorKey.isEmpty()) {
-            return "Unknown";
-        }
-
-        String[] parts = authorKey.split("[._-]");
-        StringBuilder displayName = new StringBuilder();
-
-        for (String part : parts) {
-            if (part.length() > 0) {
-                displayName.append(Character.toUpperCase(part.charAt(0)))
-                        .append(part.substring(1).toLowerCase())
-                        .append(" ");
-            }
-        }
-
-        return displayName.toString().trim();
-    }
-
-    /**
-     * Basic email validation to avoid treating non-email strings as emails returned by Sonar.
-     */
-    private boolean looksLikeEmail(String email) {
-        if (email == null) return false;
-        String trimmed = email.trim();
-        // simple check: contains '@' and a dot after '@' and no spaces
-        int at = trimmed.indexOf('@');
-        if (at <= 0 || at != trimmed.lastIndexOf('@')) return false;
-        if (trimmed.contains(" ")) return false;
-        int dot = trimmed.indexOf('.', at);
-        return dot > at + 1 && dot < trimmed.length() - 1;
-    }
-
-    // ============ PARSING HELPER METHODS ============
-
-    private Issue.Severity parseSeverity(String severity) {
-        if (severity == null || severity.isEmpty()) {
-            return Issue.Severity.MAJOR;
-        }
-        try {
-            return Issue.Severity.valueOf(severity.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            log.warn("Unknown severity: {}, defaulting to MAJOR", severity);
-            return Issue.Severity.MAJOR;
-        }
-    }
-
-    private Issue.IssueType parseIssueType(String type) {
-        if (type == null || type.isEmpty()) {
-            return Issue.IssueType.CODE_SMELL;
-        }
-        try {
-            return Issue.IssueType.valueOf(type.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            log.warn("Unknown issue type: {}, defaulting to CODE_SMELL", type);
-            return Issue.IssueType.CODE_SMELL;
-        }
-    }
-
-    private Issue.IssueStatus parseStatus(String status) {
-        if (status == null || status.isEmpty()) {
-            return Issue.IssueStatus.OPEN;
-        }
-        try {
-            return Issue.IssueStatus.valueOf(status.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            log.warn("Unknown status: {}, defaulting to OPEN", status);
-            return Issue.IssueStatus.OPEN;
-        }
-    }
-
-    private LocalDateTime parseDateTime(String dateTimeStr) {
-        if (dateTimeStr == null || dateTimeStr.isEmpty()) {
-            return null;
-        }
-        try {
-            return LocalDateTime.parse(dateTimeStr, ISO_FORMATTER);
-        } catch (Exception e) {
-            log.warn("Could not parse date: {}", dateTimeStr);
-            return null;
-        }
-    }
-
-    private Integer parseEffort(String effort) {
-        if (effort == null || effort.isEmpty()) {
-            return 0;
-        }
-        try {
-            // Parse formats like "10min", "1h", "2d"
-            String cleaned = effort.toLowerCase()
-                    .replaceAll("min", "")
-                    .replaceAll("h", "")
-                    .replaceAll("d", "")
-                    .trim();
-
-            return Integer.parseInt(cleaned);
-        } catch (Exception e) {
-            log.trace("Could not parse effort: {}", effort);
-            return 0;
-        }
-    }
-
     // ============ RESULT CLASSES ============
 
     /**
@@ -0,0 +1,466 @@
+package lk.sampath.leaderboard.services;
+
+import lk.sampath.leaderboard.client.SonarFieldCodec;
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.dto.SonarIssuesSearchResponse;
+import lk.sampath.leaderboard.entity.Issue;
+import lk.sampath.leaderboard.entity.Project;
+import lk.sampath.leaderboard.repository.IssueRepository;
+import lk.sampath.leaderboard.repository.IssueRepositoryCustom;
+import lk.sampath.leaderboard.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * The one path by which SonarQube issues reach the issues table, shared by the API sync and the JSON imports.
+ * <p>
+ * A run is split into stages connected by bounded queues (sonarqube.sync.prefetch-pages deep):
+ * <ol>
+ *     <li>PARSE - the source (a SonarQube download or a JSON file) produces pages of issues on a worker of the
+ *     ingest pool</li>
+ *     <li>DEDUPE and RESOLVE - a second worker cuts the pages into chunks of sonarqube.sync.chunk-size,
+ *     keeps the last copy of each issue key, resolves the chunk's projects and developers in bulk and
+ *     maps the issues to entities</li>
+ *     <li>WRITE - the calling thread upserts each chunk in its own transaction</li>
+ * </ol>
+ * A slow stage makes the queue in front of it fill up, which blocks the stages before it, so memory stays
+ * bounded however large the source is. Every stage counts the issues it handled and the time it spent busy.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IssueIngestionPipeline {
+
+    public enum Stage {
+        PARSE, DEDUPE, RESOLVE, WRITE
+    }
+
+    // Errors kept per run for the caller; the rest are only logged
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // Keeps IN lists well below database parameter limits
+    private static final int LOOKUP_BATCH_SIZE = 500;
+
+
+    // Identity-compared markers a stage enqueues once it has nothing more to hand over
+    private static final List<SonarIssuesSearchResponse.IssueDetail> END_OF_PAGES =
+            Collections.unmodifiableList(new ArrayList<>());
+    private static final MappedChunk END_OF_CHUNKS = new MappedChunk(List.of(), 0, 0, null);
+
+    private final IssueRepository issueRepository;
+    private final ProjectRepository projectRepository;
+    private final DeveloperIdentityResolver developerResolver;
+    private final SonarQubeProperties properties;
+    private final ExecutorService ingestExecutor;
+
+    // Totals since startup, per stage
+    private final Map<Stage, StageCounter> totals = new ConcurrentHashMap<>();
+
+    /**
+     * Produces the issues of one run, page by page
+     */
+    @FunctionalInterface
+    public interface IssueSource {
+        /**
+         * Hand every page of issues to the consumer, blocking while the pipeline is busy
+         *
+         * @return false when the source knows it could not deliver everything
+         */
+        boolean feed(Consumer<List<SonarIssuesSearchResponse.IssueDetail>> pages) throws Exception;
+    }
+
+    /**
+     * Run one source through every stage and write its issues
+     *
+     * @param sourceName label used in logs and error messages
+     * @param project    project all issues belong to, or null to use each issue's project key,
+     *                   creating projects that do not exist yet
+     */
+    public IngestionResult ingest(String sourceName, Project project, IssueSource source) {
+        int depth = Math.max(1, properties.getSync().getPrefetchPages());
+        BlockingQueue<List<SonarIssuesSearchResponse.IssueDetail>> pages = new ArrayBlockingQueue<>(depth);
+        BlockingQueue<MappedChunk> chunks = new ArrayBlockingQueue<>(depth);
+        IngestionResult result = new IngestionResult();
+
+        Future<Boolean> parser = ingestExecutor.submit(() -> parse(sourceName, source, pages, result));
+        Future<?> resolver;
+        try {
+            resolver = ingestExecutor.submit(() -> resolve(sourceName, project, pages, chunks, result));
+        } catch (RuntimeException e) {
+            parser.cancel(true);
+            throw e;
+        }
+
+        try {
+            write(sourceName, chunks, result);
+            // The resolver has consumed every page unless it failed, in which case the parser is cancelled below
+            resolver.get();
+            result.complete = parser.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Issue ingestion interrupted for " + sourceName);
+        } catch (ExecutionException e) {
+            log.error("Error ingesting issues from {}: {}", sourceName, e.getCause().getMessage());
+            result.addError(sourceName + ": " + e.getCause().getMessage());
+            result.complete = false;
+        } finally {
+            // Never leave a stage blocked on a queue nobody is draining
+            parser.cancel(true);
+            resolver.cancel(true);
+        }
+
+        result.stages.forEach((stage, counter) -> totals.computeIfAbsent(stage, s -> new StageCounter()).add(counter));
+        log.info("Ingested {} issues from {} ({} created, {} updated, {} unchanged, {} duplicates, {} failed); {}",
+                result.received, sourceName, result.created, result.updated, result.skipped,
+                result.duplicates, result.failed, describe(result.stages));
+        return result;
+    }
+
+    /**
+     * Stage totals since startup
+     */
+    public Map<Stage, StageStats> stageStats() {
+        Map<Stage, StageStats> stats = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            stats.put(stage, totals.getOrDefault(stage, new StageCounter()).snapshot());
+        }
+        return stats;
+    }
+
+    private boolean parse(String sourceName, IssueSource source,
+                          BlockingQueue<List<SonarIssuesSearchResponse.IssueDetail>> pages, IngestionResult result) throws Exception {
+        StageCounter counter = result.counter(Stage.PARSE);
+        long start = System.nanoTime();
+        try {
+            return source.feed(page -> {
+                counter.items.add(page.size());
+                put(pages, page, counter, sourceName);
+            });
+        } finally {
+            counter.busyNanos.add(System.nanoTime() - start - counter.blockedNanos.sum());
+            putEnd(pages, END_OF_PAGES);
+        }
+    }
+
+    private void resolve(String sourceName, Project project, BlockingQueue<List<SonarIssuesSearchResponse.IssueDetail>> pages,
+                         BlockingQueue<MappedChunk> chunks, IngestionResult result) {
+        StageCounter counter = result.counter(Stage.RESOLVE);
+        int chunkSize = Math.max(1, properties.getSync().getChunkSize());
+        Map<String, Project> projects = new HashMap<>();
+        List<SonarIssuesSearchResponse.IssueDetail> pending = new ArrayList<>();
+
+        try {
+            List<SonarIssuesSearchResponse.IssueDetail> page;
+            while ((page = take(pages, counter, sourceName)) != END_OF_PAGES) {
+                pending.addAll(page);
+                while (pending.size() >= chunkSize) {
+                    List<SonarIssuesSearchResponse.IssueDetail> chunk = pending.subList(0, chunkSize);
+                    put(chunks, mapChunk(sourceName, new ArrayList<>(chunk), project, projects, result), counter, sourceName);
+                    chunk.clear();
+                }
+            }
+            if (!pending.isEmpty()) {
+                put(chunks, mapChunk(sourceName, pending, project, projects, result), counter, sourceName);
+            }
+        } finally {
+            putEnd(chunks, END_OF_CHUNKS);
+        }
+    }
+
+    private MappedChunk mapChunk(String sourceName, List<SonarIssuesSearchResponse.IssueDetail> chunk, Project project,
+                                 Map<String, Project> projects, IngestionResult result) {
+        StageCounter dedupe = result.counter(Stage.DEDUPE);
+        long start = System.nanoTime();
+        Map<String, SonarIssuesSearchResponse.IssueDetail> unique = new LinkedHashMap<>();
+        int failed = 0;
+        int duplicates = 0;
+        for (SonarIssuesSearchResponse.IssueDetail detail : chunk) {
+            if (detail.getKey() == null || detail.getKey().isEmpty()) {
+                result.addError(sourceName + ": issue without a key");
+                failed++;
+            } else if (unique.put(detail.getKey(), detail) != null) {
+                // A later copy of the same issue wins
+                duplicates++;
+            }
+        }
+        dedupe.items.add(chunk.size());
+        dedupe.busyNanos.add(System.nanoTime() - start);
+
+        StageCounter resolve = result.counter(Stage.RESOLVE);
+        start = System.nanoTime();
+        developerResolver.resolveAll(unique.values().stream()
+                .map(SonarIssuesSearchResponse.IssueDetail::getAuthor)
+                .collect(Collectors.toSet()));
+        if (project == null) {
+            resolveProjects(unique.values(), projects);
+        }
+
+        List<Issue> issues = new ArrayList<>(unique.size());
+        Instant latestUpdate = null;
+        for (SonarIssuesSearchResponse.IssueDetail detail : unique.values()) {
+            try {
+                Project owner = project != null ? project : projects.get(detail.getProject());
+                if (owner == null) {
+                    throw new IllegalArgumentException("no project key");
+                }
+                issues.add(toIssue(detail, owner));
+            } catch (Exception e) {
+                log.error("Error mapping issue {} from {}: {}", detail.getKey(), sourceName, e.getMessage());
+                result.addError("Issue " + detail.getKey() + ": " + e.getMessage());
+                failed++;
+                continue;
+            }
+            Instant updated = SonarFieldCodec.instant(detail.getUpdateDate());
+            if (updated != null && (latestUpdate == null || updated.isAfter(latestUpdate))) {
+                latestUpdate = updated;
+            }
+        }
+        resolve.items.add(unique.size());
+        resolve.busyNanos.add(System.nanoTime() - start);
+        return new MappedChunk(issues, failed, duplicates, latestUpdate);
+    }
+
+    /**
+     * Add the projects of the given issues to the run's project map, creating unknown ones
+     */
+    private void resolveProjects(Collection<SonarIssuesSearchResponse.IssueDetail> details, Map<String, Project> projects) {
+        Set<String> unknown = new HashSet<>();
+        for (SonarIssuesSearchResponse.IssueDetail detail : details) {
+            if (detail.getProject() != null && !detail.getProject().isEmpty() && !projects.containsKey(detail.getProject())) {
+                unknown.add(detail.getProject());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(unknown);
+        for (int from = 0; from < keys.size(); from += LOOKUP_BATCH_SIZE) {
+            for (Project project : projectRepository.findByProjectKeyIn(keys.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, keys.size())))) {
+                projects.put(project.getProjectKey(), project);
+                unknown.remove(project.getProjectKey());
+            }
+        }
+
+        for (String projectKey : unknown) {
+            Project project = Project.builder()
+                    .projectKey(projectKey)
+                    .projectName(projectKey)
+                    .isActive(true)
+                    .build();
+            try {
+                project = projectRepository.save(project);
+                log.debug("Created project {} for imported issues", projectKey);
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently by another import
+                project = projectRepository.findByProjectKey(projectKey).orElseThrow(() -> e);
+            }
+            projects.put(projectKey, project);
+        }
+    }
+
+    /**
+     * Upsert each chunk with a single bulk statement, committed on its own.
+     * If the batch fails, the chunk is retried issue by issue so one bad row only loses itself.
+     */
+    private void write(String sourceName, BlockingQueue<MappedChunk> chunks, IngestionResult result) {
+        StageCounter counter = result.counter(Stage.WRITE);
+        MappedChunk chunk;
+        while ((chunk = take(chunks, counter, sourceName)) != END_OF_CHUNKS) {
+            long start = System.nanoTime();
+            result.failed += chunk.failed();
+            result.duplicates += chunk.duplicates();
+            result.received += chunk.issues().size() + chunk.failed() + chunk.duplicates();
+            result.recordUpdate(chunk.latestUpdate());
+            try {
+                result.add(issueRepository.upsertAll(chunk.issues()));
+            } catch (DataAccessException e) {
+                log.warn("Chunk write of {} issues from {} failed, retrying one by one: {}",
+                        chunk.issues().size(), sourceName, e.getMessage());
+                for (Issue issue : chunk.issues()) {
+                    try {
+                        result.add(issueRepository.upsertAll(List.of(issue)));
+                    } catch (DataAccessException rowError) {
+                        log.error("Error writing issue {}: {}", issue.getIssueKey(), rowError.getMessage());
+                        result.addError("Issue " + issue.getIssueKey() + ": " + rowError.getMessage());
+                        result.failed++;
+                    }
+                }
+            }
+            counter.items.add(chunk.issues().size());
+            counter.busyNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private Issue toIssue(SonarIssuesSearchResponse.IssueDetail detail, Project project) {
+        Issue issue = new Issue();
+        issue.setIssueKey(detail.getKey());
+        issue.setProject(project);
+        issue.setRuleKey(detail.getRule());
+        issue.setSeverity(SonarFieldCodec.severity(detail.getSeverity()));
+        issue.setIssueType(SonarFieldCodec.issueType(detail.getType()));
+        issue.setStatus(SonarFieldCodec.status(detail.getStatus()));
+        issue.setComponentPath(detail.getComponent());
+        issue.setLineNumber(detail.getLine());
+        issue.setMessage(detail.getMessage());
+        issue.setEffortMinutes(SonarFieldCodec.effortMinutes(detail.getEffort()));
+        issue.setCreatedDate(SonarFieldCodec.localDateTime(detail.getCreationDate()));
+        issue.setUpdatedDate(SonarFieldCodec.localDateTime(detail.getUpdateDate()));
+        issue.setResolvedDate(SonarFieldCodec.localDateTime(detail.getCloseDate()));
+
+        if (detail.getAuthor() != null && !detail.getAuthor().isEmpty()) {
+            issue.setDeveloper(developerResolver.resolve(detail.getAuthor()));
+        }
+        return issue;
+    }
+
+    private static <T> void put(BlockingQueue<T> queue, T item, StageCounter counter, String sourceName) {
+        long start = System.nanoTime();
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Issue ingestion cancelled for " + sourceName);
+        } finally {
+            counter.blockedNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static <T> T take(BlockingQueue<T> queue, StageCounter counter, String sourceName) {
+        long start = System.nanoTime();
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Issue ingestion cancelled for " + sourceName);
+        } finally {
+            counter.blockedNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static <T> void putEnd(BlockingQueue<T> queue, T end) {
+        try {
+            queue.put(end);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String describe(Map<Stage, StageCounter> stages) {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            StageStats stats = stages.getOrDefault(stage, new StageCounter()).snapshot();
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(stage.name().toLowerCase(Locale.ROOT)).append(' ')
+                    .append(String.format(Locale.ROOT, "%.0f/s", stats.itemsPerSecond()));
+        }
+        return sb.toString();
+    }
+
+    private record MappedChunk(List<Issue> issues, int failed, int duplicates, Instant latestUpdate) {
+    }
+
+    /**
+     * Issues a stage handled and how long it was busy or blocked on its queues
+     */
+    private static class StageCounter {
+        private final LongAdder items = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder blockedNanos = new LongAdder();
+
+        void add(StageCounter other) {
+            items.add(other.items.sum());
+            busyNanos.add(other.busyNanos.sum());
+            blockedNanos.add(other.blockedNanos.sum());
+        }
+
+        StageStats snapshot() {
+            return new StageStats(items.sum(), TimeUnit.NANOSECONDS.toMillis(busyNanos.sum()),
+                    TimeUnit.NANOSECONDS.toMillis(blockedNanos.sum()));
+        }
+    }
+
+    /**
+     * @param items         issues handled by the stage
+     * @param busyMillis    time spent working
+     * @param blockedMillis time spent waiting on the queue before or after the stage
+     */
+    public record StageStats(long items, long busyMillis, long blockedMillis) {
+        public double itemsPerSecond() {
+            return busyMillis == 0 ? 0 : items * 1000.0 / busyMillis;
+        }
+    }
+
+    /**
+     * Counts for one run
+     */
+    public static class IngestionResult {
+        private int received;
+        private int created;
+        private int updated;
+        private int skipped;
+        private int duplicates;
+        private int failed;
+        private boolean complete = true;
+        private Instant latestUpdate;
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Stage, StageCounter> stages = new ConcurrentHashMap<>();
+
+        public int getReceived() { return received; }
+        public int getCreated() { return created; }
+        public int getUpdated() { return updated; }
+        public int getSkipped() { return skipped; }
+        public int getDuplicates() { return duplicates; }
+        public int getFailed() { return failed; }
+        public boolean isComplete() { return complete; }
+        public Instant getLatestUpdate() { return latestUpdate; }
+        public List<String> getErrors() { return errors; }
+
+        /**
+         * Issues written or confirmed unchanged
+         */
+        public int getWritten() { return created + updated + skipped; }
+
+        private StageCounter counter(Stage stage) {
+            return stages.computeIfAbsent(stage, s -> new StageCounter());
+        }
+
+        private void add(IssueRepositoryCustom.UpsertResult written) {
+            created += written.created();
+            updated += written.updated();
+            skipped += written.skipped();
+        }
+
+        private void recordUpdate(Instant updateDate) {
+            if (updateDate != null && (latestUpdate == null || updateDate.isAfter(latestUpdate))) {
+                latestUpdate = updateDate;
+            }
+        }
+
+        private void addError(String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package lk.sampath.leaderboard.services;
+
+import lk.sampath.leaderboard.client.SonarQubeClient;
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.entity.Issue;
+import lk.sampath.leaderboard.entity.Project;
+import lk.sampath.leaderboard.repository.IssueRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds stored issues that no longer exist in SonarQube (deleted, or purged after being closed).
+ * The live issue keys of a project are reduced to a sorted array of 64-bit hashes while the pages
+ * stream in, and the stored keys are walked in id order against it. Stale open issues are closed in
+ * bulk so they stop counting as open; stale closed issues are deleted when sonarqube.sync.purge-closed-deleted is on.
+ * Only rows last written before the live keys were fetched are considered: a webhook sync or an import may
+ * store issues meanwhile that the fetched keys do not include. Runs under the sync job lock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IssueReconciliationService {
+
+    private static final int SCAN_PAGE_SIZE = 1000;
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final SonarQubeClient sonarClient;
+    private final IssueRepository issueRepository;
+    private final SonarQubeProperties properties;
+    private final JobLockService jobLockService;
+
+    /**
+     * Reconcile one project's stored issues with SonarQube.
+     * Nothing is changed unless every live issue key could be fetched.
+     */
+    public ReconcileResult reconcile(Project project) {
+        ReconcileResult[] result = {new ReconcileResult(0, 0, 0)};
+        if (!jobLockService.runWithinLock(JobLockService.Job.SONARQUBE_SYNC, () -> result[0] = reconcileLocked(project))) {
+            log.warn("A sync is running elsewhere, skipping reconciliation of project {}", project.getProjectKey());
+        }
+        return result[0];
+    }
+
+    private ReconcileResult reconcileLocked(Project project) {
+        // Rows written from here on may be issues the live keys fetched below do not include.
+        // Whole seconds, as a DATETIME column may drop the fraction of a later write
+        LocalDateTime cutoff = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Optional<LocalDateTime> earliest = issueRepository.findEarliestCreatedDate(project);
+        if (earliest.isEmpty()) {
+            return new ReconcileResult(0, 0, 0);
+        }
+
+        // Widened by a day on each side: SonarQube filters creation dates in the server's time zone
+        LiveKeys live = new LiveKeys();
+        SonarQubeClient.IssueFetchResult fetched = sonarClient.fetchIssuePagesForProject(project.getProjectKey(),
+                earliest.get().toLocalDate().minusDays(1), LocalDate.now().plusDays(1),
+                page -> page.forEach(issue -> live.add(issue.getKey())));
+        if (!fetched.complete()) {
+            log.warn("Could not fetch every live issue of project {}, skipping reconciliation", project.getProjectKey());
+            return new ReconcileResult(0, 0, 0);
+        }
+        if (fetched.fetched() == 0) {
+            // An empty answer for a project with stored issues is more likely a SonarQube problem than a real purge
+            log.warn("SonarQube returned no issues for project {}, skipping reconciliation", project.getProjectKey());
+            return new ReconcileResult(0, 0, 0);
+        }
+        live.seal();
+
+        boolean purgeClosed = properties.getSync().isPurgeClosedDeleted();
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> toClose = new ArrayList<>();
+        List<Integer> toDelete = new ArrayList<>();
+        int closed = 0;
+        int deleted = 0;
+        int afterId = 0;
+
+        List<IssueRepository.IssueKeyRow> rows;
+        do {
+            rows = issueRepository.findKeyRowsAfter(project, cutoff, afterId, PageRequest.of(0, SCAN_PAGE_SIZE));
+            for (IssueRepository.IssueKeyRow row : rows) {
+                afterId = row.getId();
+                if (live.contains(row.getIssueKey())) {
+                    continue;
+                }
+                if (isOpen(row.getStatus())) {
+                    toClose.add(row.getId());
+                } else if (purgeClosed) {
+                    toDelete.add(row.getId());
+                }
+            }
+            if (toClose.size() >= WRITE_BATCH_SIZE) {
+                closed += issueRepository.closeAllById(toClose, now);
+                toClose.clear();
+            }
+            if (toDelete.size() >= WRITE_BATCH_SIZE) {
+                deleted += issueRepository.deleteAllByIdIn(toDelete);
+                toDelete.clear();
+            }
+        } while (rows.size() == SCAN_PAGE_SIZE);
+
+        if (!toClose.isEmpty()) {
+            closed += issueRepository.closeAllById(toClose, now);
+        }
+        if (!toDelete.isEmpty()) {
+            deleted += issueRepository.deleteAllByIdIn(toDelete);
+        }
+
+        if (closed > 0 || deleted > 0) {
+            log.info("Reconciled project {} against {} live issues: {} closed, {} deleted",
+                    project.getProjectKey(), live.size(), closed, deleted);
+        }
+        return new ReconcileResult(live.size(), closed, deleted);
+    }
+
+    private static boolean isOpen(Issue.IssueStatus status) {
+        return status == Issue.IssueStatus.OPEN
+                || status == Issue.IssueStatus.CONFIRMED
+                || status == Issue.IssueStatus.REOPENED;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of an issue key. A collision can only keep a stale issue open until the next pass.
+     */
+    private static long keyHash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * @param live    issues found in SonarQube
+     * @param closed  stored open issues closed because they are gone
+     * @param deleted stored closed issues deleted because they were purged
+     */
+    public record ReconcileResult(int live, int closed, int deleted) {
+    }
+
+    /**
+     * Set of live issue key hashes, filled concurrently by the page fetchers and then sorted for lookups
+     */
+    private static class LiveKeys {
+        private long[] hashes = new long[1024];
+        private int size;
+
+        synchronized void add(String key) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            hashes[size++] = keyHash(key);
+        }
+
+        synchronized void seal() {
+            hashes = Arrays.copyOf(hashes, size);
+            Arrays.sort(hashes);
+        }
+
+        boolean contains(String key) {
+            return key != null && Arrays.binarySearch(hashes, keyHash(key)) >= 0;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
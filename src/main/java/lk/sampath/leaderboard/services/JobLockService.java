@@ -0,0 +1,179 @@
+package lk.sampath.leaderboard.services;
+
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.repository.JobLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps two runs of the same job from overlapping, on one node or across nodes, using rows in job_locks.
+ * <p>
+ * A lock is held for at most the job's lock-at-most duration, so a node that dies mid-run blocks the job
+ * no longer than that. On release the lock is kept until lock-at-least after the start, so a duplicate
+ * trigger arriving just after a short run (another node's cron, a second cron for the same job) is skipped.
+ * Nodes taking part in the same cluster sync run pass its run key as owner and may all hold the lock.
+ * The sync lock's lock-at-most comes from sonarqube.sync.lock-at-most-minutes, as a sync can take hours.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobLockService {
+
+    public enum Job {
+        // Every SonarQube sync shares one lock: they hit the same API and the same issue rows.
+        // Its lock-at-most is configured; the duration here is the fallback
+        SONARQUBE_SYNC("sonarqube-sync", Duration.ofHours(6), Duration.ofMinutes(5)),
+        RANKING_CALCULATION("ranking-calculation", Duration.ofHours(1), Duration.ofMinutes(5));
+
+        private final String lockName;
+        private final Duration lockAtMost;
+        private final Duration lockAtLeast;
+
+        Job(String lockName, Duration lockAtMost, Duration lockAtLeast) {
+            this.lockName = lockName;
+            this.lockAtMost = lockAtMost;
+            this.lockAtLeast = lockAtLeast;
+        }
+    }
+
+    // How often a run waiting for a lock tries to take it again
+    private static final Duration WAIT_POLL = Duration.ofSeconds(30);
+
+    // Runs of each job holding its lock on this node
+    private final Map<Job, AtomicInteger> heldHere = new ConcurrentHashMap<>();
+
+    private final JobLockRepository lockRepository;
+    private final SonarQubeProperties properties;
+
+    /**
+     * Run the task if the job's lock can be taken
+     *
+     * @param owner run key shared by nodes cooperating on one run, or null for a run of its own
+     * @return false when another run holds the lock and the task was skipped
+     */
+    public boolean runLocked(Job job, String owner, Runnable task) {
+        return runLocked(job, owner, Duration.ZERO, task);
+    }
+
+    /**
+     * Run the task once the job's lock can be taken, waiting up to wait for the run holding it to finish
+     *
+     * @param owner run key shared by nodes cooperating on one run, or null for a run of its own
+     * @return false when another run still held the lock after wait and the task was skipped
+     */
+    public boolean runLocked(Job job, String owner, Duration wait, Runnable task) {
+        return run(job, owner, wait, job.lockAtLeast, task);
+    }
+
+    /**
+     * Run the task if the job's lock can be taken, releasing the lock as soon as the task ends.
+     * For runs triggered by events rather than a cron, which must not make the next cron run skip.
+     *
+     * @return false when another run holds the lock and the task was skipped
+     */
+    public boolean runLockedBriefly(Job job, Runnable task) {
+        return run(job, null, Duration.ZERO, Duration.ZERO, task);
+    }
+
+    private boolean run(Job job, String owner, Duration wait, Duration lockAtLeast, Runnable task) {
+        String holder = owner != null ? owner : "run:" + UUID.randomUUID();
+        LocalDateTime lockedAt = acquireWithin(job, holder, wait);
+        if (lockedAt == null) {
+            log.warn("Job {} is already running elsewhere, skipping this run", job.lockName);
+            return false;
+        }
+
+        heldHere.computeIfAbsent(job, key -> new AtomicInteger()).incrementAndGet();
+        try {
+            task.run();
+            return true;
+        } finally {
+            heldHere.get(job).decrementAndGet();
+            release(job, holder, lockedAt.plus(lockAtLeast));
+        }
+    }
+
+    /**
+     * Run a step of a job under its lock. When a run on this node already holds the lock, the step is part
+     * of that run (only one run holds a lock at a time) and runs straight away; otherwise it takes the lock
+     * as a run of its own.
+     *
+     * @return false when another run holds the lock and the step was skipped
+     */
+    public boolean runWithinLock(Job job, Runnable step) {
+        AtomicInteger held = heldHere.get(job);
+        if (held != null && held.get() > 0) {
+            step.run();
+            return true;
+        }
+        return runLocked(job, null, step);
+    }
+
+    /**
+     * @return when the lock was taken, or null if it was still held by another run after wait
+     */
+    private LocalDateTime acquireWithin(Job job, String holder, Duration wait) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        boolean logged = false;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            if (acquire(job, holder, now)) {
+                return now;
+            }
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return null;
+            }
+            if (!logged) {
+                log.info("Job {} is already running elsewhere, waiting up to {} for it", job.lockName, wait);
+                logged = true;
+            }
+            try {
+                Thread.sleep(Math.min(WAIT_POLL.toMillis(), Math.max(1, left / 1_000_000)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private Duration lockAtMost(Job job) {
+        if (job == Job.SONARQUBE_SYNC && properties.getSync().getLockAtMostMinutes() > 0) {
+            return Duration.ofMinutes(properties.getSync().getLockAtMostMinutes());
+        }
+        return job.lockAtMost;
+    }
+
+    private boolean acquire(Job job, String holder, LocalDateTime now) {
+        LocalDateTime until = now.plus(lockAtMost(job));
+        if (lockRepository.acquire(job.lockName, holder, until, now) == 1) {
+            return true;
+        }
+        try {
+            return lockRepository.insertLocked(job.lockName, holder, until, now) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // The row exists and is held by another run
+            return false;
+        }
+    }
+
+    private void release(Job job, String holder, LocalDateTime earliestRelease) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            lockRepository.release(job.lockName, holder, earliestRelease.isAfter(now) ? earliestRelease : now);
+        } catch (DataAccessException e) {
+            // The lock then simply expires after lock-at-most
+            log.warn("Could not release lock of job {}: {}", job.lockName, e.getMessage());
+        }
+    }
+}
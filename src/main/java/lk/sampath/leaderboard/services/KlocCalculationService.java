@@ -4,15 +4,20 @@ import lk.sampath.leaderboard.client.SonarQubeClient;
 import lk.sampath.leaderboard.entity.Developer;
 import lk.sampath.leaderboard.entity.Issue;
 import lk.sampath.leaderboard.entity.Project;
+import lk.sampath.leaderboard.entity.ProjectKlocSnapshot;
 import lk.sampath.leaderboard.repository.IssueRepository;
+import lk.sampath.leaderboard.repository.ProjectKlocSnapshotRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,28 +29,71 @@ public class KlocCalculationService {
 
     private final SonarQubeClient sonarClient;
     private final IssueRepository issueRepository;
+    private final ProjectKlocSnapshotRepository snapshotRepository;
 
     private static final BigDecimal THOUSAND = new BigDecimal("1000");
 
     /**
-     * Get KLOC for a project from SonarQube
+     * Capture the current ncloc of the given projects as the snapshot for a period.
+     * All projects are measured with batched /api/measures/search calls; an existing
+     * snapshot for the same period is overwritten.
      */
-    public BigDecimal getProjectKloc(Project project) {
-        Map<String, String> metrics = sonarClient.fetchProjectMetrics(project.getProjectKey());
-        String nclocValue = metrics.get("ncloc");
+    @Transactional
+    public int refreshKlocSnapshots(Collection<Project> projects, LocalDate period) {
+        LocalDate snapshotPeriod = period.withDayOfMonth(1);
+        Map<String, Project> projectsByKey = new HashMap<>();
+        projects.forEach(project -> projectsByKey.put(project.getProjectKey(), project));
 
-        if (nclocValue == null || nclocValue.isEmpty()) {
-            log.warn("No KLOC data found for project: {}", project.getProjectKey());
-            return BigDecimal.ZERO;
+        Map<String, Long> nclocByKey = sonarClient.fetchNclocForProjects(projectsByKey.keySet());
+
+        Map<Integer, ProjectKlocSnapshot> existing = new HashMap<>();
+        for (ProjectKlocSnapshot snapshot : snapshotRepository.findBySnapshotPeriod(snapshotPeriod)) {
+            existing.put(snapshot.getProject().getId(), snapshot);
+        }
+
+        List<ProjectKlocSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : nclocByKey.entrySet()) {
+            Project project = projectsByKey.get(entry.getKey());
+            if (project == null) {
+                continue;
+            }
+            ProjectKlocSnapshot snapshot = existing.getOrDefault(project.getId(),
+                    ProjectKlocSnapshot.builder()
+                            .project(project)
+                            .snapshotPeriod(snapshotPeriod)
+                            .build());
+            snapshot.setNcloc(entry.getValue());
+            snapshot.setKloc(BigDecimal.valueOf(entry.getValue()).divide(THOUSAND, 2, RoundingMode.HALF_UP));
+            snapshots.add(snapshot);
+        }
+
+        snapshotRepository.saveAll(snapshots);
+        log.info("Stored KLOC snapshots for {} of {} projects for {}", snapshots.size(), projects.size(), snapshotPeriod);
+        return snapshots.size();
+    }
+
+    /**
+     * KLOC of every project for a ranking period, keyed by project id.
+     * A project without a snapshot for the period uses its most recent earlier one.
+     */
+    public Map<Integer, BigDecimal> getProjectKlocSnapshot(LocalDate period) {
+        Map<Integer, BigDecimal> klocByProject = new HashMap<>();
+        for (ProjectKlocSnapshot snapshot : snapshotRepository.findLatestUpToPeriod(period.withDayOfMonth(1))) {
+            klocByProject.put(snapshot.getProject().getId(), snapshot.getKloc());
         }
+        return klocByProject;
+    }
 
-        try {
-            BigDecimal ncloc = new BigDecimal(nclocValue);
-            return ncloc.divide(THOUSAND, 2, RoundingMode.HALF_UP);
-        } catch (NumberFormatException e) {
-            log.error("Error parsing KLOC for project {}: {}", project.getProjectKey(), e.getMessage());
+    /**
+     * Get KLOC for a project from a snapshot map loaded with getProjectKlocSnapshot
+     */
+    public BigDecimal getProjectKloc(Project project, Map<Integer, BigDecimal> klocSnapshot) {
+        BigDecimal kloc = klocSnapshot.get(project.getId());
+        if (kloc == null) {
+            log.warn("No KLOC snapshot found for project: {}", project.getProjectKey());
             return BigDecimal.ZERO;
         }
+        return kloc;
     }
 
     /**
@@ -72,6 +120,7 @@ public class KlocCalculationService {
         }
 
         // Calculate weighted KLOC based on developer's contribution to each project
+        Map<Integer, BigDecimal> klocSnapshot = getProjectKlocSnapshot(month);
         BigDecimal totalKloc = BigDecimal.ZERO;
 
         for (Map.Entry<Project, Long> entry : issuesByProject.entrySet()) {
@@ -83,7 +132,7 @@ public class KlocCalculationService {
 
             if (totalProjectIssues > 0) {
                 // Get project KLOC
-                BigDecimal projectKloc = getProjectKloc(project);
+                BigDecimal projectKloc = getProjectKloc(project, klocSnapshot);
 
                 // Calculate developer's proportional KLOC
                 // (developer's issues / total issues) * project KLOC
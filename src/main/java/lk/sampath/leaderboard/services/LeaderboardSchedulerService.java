@@ -1,10 +1,12 @@
 package lk.sampath.leaderboard.services;
 
+import lk.sampath.leaderboard.config.SonarQubeProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDate;
 
 @Service
@@ -14,39 +16,70 @@ public class LeaderboardSchedulerService {
 
     private final SonarQubeSyncService syncService;
     private final RankingCalculationService rankingService;
+    private final JobLockService jobLockService;
+    private final SonarQubeProperties properties;
+
+    private static final String MONTHLY_SYNC_CRON = "0 0 2 1 * ?";
 
     /**
      * Runs on the 1st day of every month at 2 AM
-     * Syncs data from the previous month
+     * Every node fires this together and they split the projects through sync leases.
+     * The rankings depend on it, so it waits for a sync still holding the lock rather than being skipped.
+     */
+    @Scheduled(cron = MONTHLY_SYNC_CRON)
+    public void scheduledMonthlyDataSync() {
+        monthlyDataSync(SyncLeaseService.scheduledRunKey("monthly-sync", MONTHLY_SYNC_CRON),
+                Duration.ofMinutes(Math.max(0, properties.getSync().getMonthlySyncLockWaitMinutes())));
+    }
+
+    /**
+     * Syncs data from the previous month on this node only
+     *
+     * @return false if another sync was running and this one was skipped
      */
-    @Scheduled(cron = "0 0 2 1 * ?")
-    public void monthlyDataSync() {
+    public boolean monthlyDataSync() {
+        return monthlyDataSync(null, Duration.ZERO);
+    }
+
+    private boolean monthlyDataSync(String clusterRunKey, Duration lockWait) {
         LocalDate previousMonth = LocalDate.now().minusMonths(1).withDayOfMonth(1);
-        log.info("Starting scheduled monthly sync for {}", previousMonth);
-
-        try {
-            syncService.syncMonthlyData(previousMonth);
-            log.info("Monthly sync completed successfully for {}", previousMonth);
-        } catch (Exception e) {
-            log.error("Error during monthly sync for {}: {}", previousMonth, e.getMessage(), e);
-        }
+
+        return jobLockService.runLocked(JobLockService.Job.SONARQUBE_SYNC, clusterRunKey, lockWait, () -> {
+            log.info("Starting scheduled monthly sync for {}", previousMonth);
+            try {
+                syncService.syncMonthlyData(previousMonth, clusterRunKey);
+                log.info("Monthly sync completed successfully for {}", previousMonth);
+            } catch (Exception e) {
+                log.error("Error during monthly sync for {}: {}", previousMonth, e.getMessage(), e);
+            }
+        });
     }
 
     /**
      * Runs on the 1st day of every month at 3 AM
-     * Calculates rankings for the previous month
      */
     @Scheduled(cron = "0 0 3 1 * ?")
-    public void     monthlyRankingCalculation() {
+    public void scheduledMonthlyRankingCalculation() {
+        monthlyRankingCalculation();
+    }
+
+    /**
+     * Calculates rankings for the previous month
+     *
+     * @return false if another ranking calculation was running and this one was skipped
+     */
+    public boolean monthlyRankingCalculation() {
         LocalDate previousMonth = LocalDate.now().minusMonths(1).withDayOfMonth(1);
-        log.info("Starting scheduled ranking calculation for {}", previousMonth);
-
-        try {
-            rankingService.calculateMonthlyRankings(previousMonth);
-            log.info("Ranking calculation completed successfully for {}", previousMonth);
-        } catch (Exception e) {
-            log.error("Error during ranking calculation for {}: {}", previousMonth, e.getMessage(), e);
-        }
+
+        return jobLockService.runLocked(JobLockService.Job.RANKING_CALCULATION, null, () -> {
+            log.info("Starting scheduled ranking calculation for {}", previousMonth);
+            try {
+                rankingService.calculateMonthlyRankings(previousMonth);
+                log.info("Ranking calculation completed successfully for {}", previousMonth);
+            } catch (Exception e) {
+                log.error("Error during ranking calculation for {}: {}", previousMonth, e.getMessage(), e);
+            }
+        });
     }
 
 }
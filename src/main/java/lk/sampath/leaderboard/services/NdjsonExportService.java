@@ -0,0 +1,127 @@
+package lk.sampath.leaderboard.services;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.dto.mapper.NdjsonRecordMapper;
+import lk.sampath.leaderboard.entity.IndividualRanking;
+import lk.sampath.leaderboard.entity.Issue;
+import lk.sampath.leaderboard.entity.ProjectRanking;
+import lk.sampath.leaderboard.repository.DeveloperRepository;
+import lk.sampath.leaderboard.repository.IndividualRankingRepository;
+import lk.sampath.leaderboard.repository.IssueRepository;
+import lk.sampath.leaderboard.repository.ProjectRankingRepository;
+import lk.sampath.leaderboard.repository.ProjectRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Writes issues, developers, projects and rankings as newline-delimited JSON, one record per line.
+ * Issues and rankings are read a keyset page at a time, each page in its own persistence context,
+ * so an export of any size holds one page in memory. The records are the ones the NDJSON import reads.
+ */
+@Service
+@Slf4j
+public class NdjsonExportService {
+
+    public static final Set<String> TYPES = Set.of("issues", "developers", "projects", "rankings");
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private DeveloperRepository developerRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private IndividualRankingRepository individualRankingRepository;
+
+    @Autowired
+    private ProjectRankingRepository projectRankingRepository;
+
+    @Autowired
+    private NdjsonRecordMapper recordMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SonarQubeProperties properties;
+
+    @FunctionalInterface
+    private interface PageQuery<E> {
+        List<E> after(Integer afterId, Pageable page);
+    }
+
+    /**
+     * Write every record of a type
+     *
+     * @param period only the rankings of this month, or all months when null; ignored for other types
+     * @return number of records written
+     */
+    public long export(String type, LocalDate period, OutputStream target) throws IOException {
+        ObjectWriter writer = objectMapper.copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .writer();
+        long start = System.currentTimeMillis();
+        BufferedOutputStream out = new BufferedOutputStream(target, 1 << 16);
+        long written = switch (type) {
+            case "issues" -> writePages(out, writer, issueRepository::findPageAfter, Issue::getId,
+                    recordMapper::toIssueRecord);
+            case "developers" -> writeAll(out, writer, developerRepository.findAll(Sort.by("id")),
+                    recordMapper::toDeveloperRecord);
+            case "projects" -> writeAll(out, writer, projectRepository.findAll(Sort.by("id")),
+                    recordMapper::toProjectRecord);
+            case "rankings" -> writePages(out, writer,
+                    (afterId, page) -> individualRankingRepository.findPageAfter(period, afterId, page),
+                    IndividualRanking::getId, recordMapper::toRankingRecord)
+                    + writePages(out, writer,
+                    (afterId, page) -> projectRankingRepository.findPageAfter(period, afterId, page),
+                    ProjectRanking::getId, recordMapper::toRankingRecord);
+            default -> throw new IllegalArgumentException("Unknown type: " + type);
+        };
+        out.flush();
+        log.info("Exported {} {} as NDJSON in {} ms", written, type, System.currentTimeMillis() - start);
+        return written;
+    }
+
+    private <E> long writePages(OutputStream out, ObjectWriter writer, PageQuery<E> query, Function<E, Integer> id,
+                                Function<E, ?> toRecord) throws IOException {
+        Pageable page = PageRequest.of(0, Math.max(1, properties.getSync().getChunkSize()));
+        long written = 0;
+        Integer afterId = 0;
+        List<E> rows;
+        do {
+            rows = query.after(afterId, page);
+            written += writeAll(out, writer, rows, toRecord);
+            if (!rows.isEmpty()) {
+                afterId = id.apply(rows.get(rows.size() - 1));
+            }
+        } while (rows.size() == page.getPageSize());
+        return written;
+    }
+
+    private static <E> long writeAll(OutputStream out, ObjectWriter writer, List<E> rows, Function<E, ?> toRecord)
+            throws IOException {
+        for (E row : rows) {
+            out.write(writer.writeValueAsBytes(toRecord.apply(row)));
+            out.write('\n');
+        }
+        return rows.size();
+    }
+}
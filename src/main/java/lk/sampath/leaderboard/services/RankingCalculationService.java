@@ -27,24 +27,35 @@ public class RankingCalculationService {
     private final IndividualRankingRepository individualRankingRepository;
     private final ProjectRankingRepository projectRankingRepository;
     private final KlocCalculationService klocCalculationService;
+    private final SyncEventStream eventStream;
 
     private static final BigDecimal THOUSAND = new BigDecimal("1000");
 
     @Transactional
     public void calculateMonthlyRankings(LocalDate month) {
         log.info("Starting ranking calculation for {}", month);
+        long start = System.currentTimeMillis();
+        eventStream.publish("ranking-started", Map.of("month", month));
 
         LocalDate startOfMonth = month.withDayOfMonth(1);
         LocalDate endOfMonth = month.withDayOfMonth(month.lengthOfMonth());
         LocalDateTime startDateTime = startOfMonth.atStartOfDay();
         LocalDateTime endDateTime = endOfMonth.atTime(23, 59, 59);
 
-        // Calculate individual rankings
-        calculateIndividualRankings(month, startDateTime, endDateTime);
-
-        // Calculate project rankings
-        calculateProjectRankings(month);
+        try {
+            // Calculate individual rankings
+            calculateIndividualRankings(month, startDateTime, endDateTime);
+            eventStream.publish("ranking-progress", Map.of("month", month, "step", "individual",
+                    "durationMs", System.currentTimeMillis() - start));
+
+            // Calculate project rankings
+            calculateProjectRankings(month);
+        } catch (RuntimeException e) {
+            eventStream.publish("ranking-failed", Map.of("month", month, "error", String.valueOf(e.getMessage())));
+            throw e;
+        }
 
+        eventStream.publish("ranking-finished", Map.of("month", month, "durationMs", System.currentTimeMillis() - start));
         log.info("Completed ranking calculation for {}", month);
     }
 
@@ -193,6 +204,9 @@ public class RankingCalculationService {
         List<Project> activeProjects = projectRepository.findByIsActiveTrue();
         List<ProjectRanking> rankings = new ArrayList<>();
 
+        // KLOC comes from the snapshot stored during sync, so ranking makes no SonarQube calls
+        Map<Integer, BigDecimal> klocSnapshot = klocCalculationService.getProjectKlocSnapshot(month);
+
         for (Project project : activeProjects) {
             ProjectRanking ranking = projectRankingRepository
                     .findByProjectAndRankingPeriod(project, month)
@@ -201,8 +215,7 @@ public class RankingCalculationService {
                             .rankingPeriod(month)
                             .build());
 
-            // Get KLOC from SonarQube using the KLOC service
-            BigDecimal kloc = klocCalculationService.getProjectKloc(project);
+            BigDecimal kloc = klocCalculationService.getProjectKloc(project, klocSnapshot);
             ranking.setTotalKloc(kloc);
 
             // Calculate violations for the project
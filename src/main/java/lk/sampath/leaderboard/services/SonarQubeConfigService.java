@@ -3,6 +3,7 @@ package lk.sampath.leaderboard.services;
 import lk.sampath.leaderboard.entity.SonarQubeConfig;
 import lk.sampath.leaderboard.repository.SonarQubeConfigRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +14,7 @@ import java.util.Optional;
 public class SonarQubeConfigService {
 
     private final SonarQubeConfigRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Optional<SonarQubeConfig> getLatestConfig() {
         return repository.findTopByOrderByUpdatedAtDesc();
@@ -35,6 +37,16 @@ public class SonarQubeConfigService {
                 .baseUrl(baseUrl)
                 .apiToken(tokenToSave)
                 .build();
-        return repository.save(cfg);
+        SonarQubeConfig saved = repository.save(cfg);
+
+        // Listeners holding a cached copy of the config refresh once this transaction commits
+        eventPublisher.publishEvent(new ConfigChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Published whenever a new SonarQube configuration row is saved
+     */
+    public record ConfigChangedEvent(Long configId) {
     }
 }
@@ -2,25 +2,38 @@ package lk.sampath.leaderboard.services;
 
 
 import lk.sampath.leaderboard.client.SonarQubeClient;
+import lk.sampath.leaderboard.config.SonarQubeProperties;
 import lk.sampath.leaderboard.dto.SonarProjectSearchResponse;
 import lk.sampath.leaderboard.dto.SonarIssuesSearchResponse;
 import lk.sampath.leaderboard.dto.SyncResponse;
-import lk.sampath.leaderboard.entity.Developer;
-import lk.sampath.leaderboard.entity.Issue;
 import lk.sampath.leaderboard.entity.Project;
+import lk.sampath.leaderboard.entity.SyncCheckpoint;
+import lk.sampath.leaderboard.entity.SyncLease;
+import lk.sampath.leaderboard.entity.SyncLog;
 import lk.sampath.leaderboard.repository.DeveloperRepository;
-import lk.sampath.leaderboard.repository.IssueRepository;
 import lk.sampath.leaderboard.repository.ProjectRepository;
+import lk.sampath.leaderboard.repository.SyncCheckpointRepository;
+import lk.sampath.leaderboard.repository.SyncLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -30,10 +43,29 @@ public class SonarQubeSyncService {
     private final SonarQubeClient sonarClient;
     private final ProjectRepository projectRepository;
     private final DeveloperRepository developerRepository;
-    private final IssueRepository issueRepository;
+    private final SyncLogRepository syncLogRepository;
+    private final SyncCheckpointRepository checkpointRepository;
+    private final KlocCalculationService klocCalculationService;
+    private final DeveloperIdentityResolver developerResolver;
+    private final IssueIngestionPipeline ingestionPipeline;
+    private final IssueReconciliationService reconciliationService;
+    private final SyncLeaseService leaseService;
+    private final SyncProgressTracker progressTracker;
+    private final SonarQubeProperties properties;
+    private final ExecutorService syncExecutor;
+
+    // Checkpoints and leases of runs that were never finished are dropped after this long
+    private static final int CHECKPOINT_RETENTION_DAYS = 30;
 
-    @Transactional
     public void syncMonthlyData(LocalDate month) {
+        syncMonthlyData(month, null);
+    }
+
+    /**
+     * @param clusterRunKey run key shared by every node taking part in this run, which then split the
+     *                      projects between them; null runs every project on this node
+     */
+    public void syncMonthlyData(LocalDate month, String clusterRunKey) {
         log.info("Starting monthly SonarQube data sync for {}", month);
 
         LocalDate startOfMonth = month.withDayOfMonth(1);
@@ -42,12 +74,27 @@ public class SonarQubeSyncService {
         // Sync projects
         List<SonarProjectSearchResponse.Component> sonarProjects = sonarClient.fetchAllProjects();
         Map<String, Project> projects = syncProjects(sonarProjects);
-
-        // Sync issues for each project
-        for (Project project : projects.values()) {
-            syncIssuesForProject(project, startOfMonth, endOfMonth);
+        developerResolver.preload();
+
+        // Sync issues for each project. A creation-date range does not see every update,
+        // so the monthly run records its counts but never moves the incremental watermark.
+        // Re-running the same month after a crash resumes from the stored checkpoints.
+        String runKey = "monthly:" + startOfMonth;
+        checkpointRepository.deleteStale(LocalDateTime.now().minusDays(CHECKPOINT_RETENTION_DAYS));
+        leaseService.deleteStale(LocalDateTime.now().minusDays(CHECKPOINT_RETENTION_DAYS));
+        SyncProgressTracker.Run progress = progressTracker.start("monthly " + startOfMonth, projects.size());
+        try {
+            ProjectSyncResult totals = syncIssuesForProjects(projects.values(), leaseRunKey("monthly:" + startOfMonth, clusterRunKey),
+                    progress, project -> reconcileDeleted(project,
+                    syncProjectLogged(project, SyncLog.SyncType.FULL, null,
+                            () -> syncRangeResumable(project, runKey, startOfMonth, endOfMonth, false, progress))));
+            finishRun(runKey, totals);
+        } finally {
+            progress.finish();
         }
 
+        refreshKlocSnapshots(projects.values(), month);
+
         log.info("Completed monthly SonarQube data sync for {}", month);
     }
 
@@ -55,15 +102,7 @@ public class SonarQubeSyncService {
         Map<String, Project> projects = new HashMap<>();
 
         for (SonarProjectSearchResponse.Component sonarProject : sonarProjects) {
-            Project project = projectRepository.findByProjectKey(sonarProject.getKey())
-                    .orElseGet(() -> Project.builder()
-                            .projectKey(sonarProject.getKey())
-                            .projectName(sonarProject.getName())
-                            .isActive(true)
-                            .build());
-
-            project.setProjectName(sonarProject.getName());
-            project = projectRepository.save(project);
+            Project project = saveProject(sonarProject.getKey(), sonarProject.getName());
             projects.put(project.getProjectKey(), project);
 
             log.debug("Synced project: {}", project.getProjectKey());
@@ -72,66 +111,422 @@ public class SonarQubeSyncService {
         return projects;
     }
 
-    private int syncIssuesForProject(Project project, LocalDate startDate, LocalDate endDate) {
+    private Project saveProject(String projectKey, String projectName) {
+        Project project = projectRepository.findByProjectKey(projectKey)
+                .orElseGet(() -> Project.builder()
+                        .projectKey(projectKey)
+                        .projectName(projectName)
+                        .isActive(true)
+                        .build());
+
+        project.setProjectName(projectName);
+        try {
+            return projectRepository.save(project);
+        } catch (DataIntegrityViolationException e) {
+            // Inserted at the same moment by another node running the same sync
+            return projectRepository.findByProjectKey(projectKey).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Store the projects' current size as the KLOC snapshot for the period's month.
+     * Failure only leaves the previous snapshot in place, so it does not fail the sync.
+     */
+    private void refreshKlocSnapshots(Collection<Project> projects, LocalDate period) {
+        try {
+            klocCalculationService.refreshKlocSnapshots(projects, period);
+        } catch (Exception e) {
+            log.error("Error storing KLOC snapshots for {}: {}", period, e.getMessage());
+        }
+    }
+
+    /**
+     * After a complete sync of a project, close stored issues that SonarQube no longer has.
+     * This needs every live key of the project, so it only runs on full and monthly syncs.
+     */
+    private ProjectSyncResult reconcileDeleted(Project project, ProjectSyncResult result) {
+        if (result.complete && properties.getSync().isReconcileDeleted()) {
+            try {
+                reconciliationService.reconcile(project);
+            } catch (Exception e) {
+                log.error("Error reconciling deleted issues of project {}: {}", project.getProjectKey(), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Choose how to sync one project for syncAllProjects.
+     * Without a previous watermark (or on a full sync) the creation-date range is fetched and the
+     * watermark is set to when this run started. Otherwise only issues updated since the watermark
+     * are fetched, falling back to the range when that fetch is incomplete.
+     * The fallback re-reads the whole range: a checkpoint left by an earlier run of the same range
+     * predates the changes the incremental search could not return. It keeps the old watermark, since
+     * changes to issues created before the range are still unread; the next run fetches them again.
+     */
+    private ProjectSyncResult syncProject(Project project, boolean fullSync, LocalDate startDate, LocalDate endDate,
+                                          Instant syncStart, SyncProgressTracker.Run progress) {
+        Optional<LocalDateTime> watermark = fullSync ? Optional.empty() : syncLogRepository.findHighWaterMark(project);
+
+        boolean restartRange = false;
+        if (watermark.isPresent()) {
+            Instant since = watermark.get().toInstant(ZoneOffset.UTC)
+                    .minus(Duration.ofMinutes(properties.getSync().getWatermarkOverlapMinutes()));
+            ProjectSyncResult result = syncProjectLogged(project, SyncLog.SyncType.INCREMENTAL, watermark.get().toInstant(ZoneOffset.UTC),
+                    () -> syncIssuesForProject(project, progress,
+                            pageConsumer -> sonarClient.fetchIssuePagesUpdatedSince(project.getProjectKey(), since, pageConsumer)));
+            if (result.complete) {
+                return result;
+            }
+            log.info("Incremental sync of project {} was incomplete, re-syncing its date range", project.getProjectKey());
+            restartRange = true;
+        }
+
+        boolean restart = restartRange;
+        return syncProjectLogged(project, SyncLog.SyncType.FULL, restart ? null : syncStart,
+                () -> syncRangeResumable(project, rangeRunKey(startDate, endDate), startDate, endDate, restart, progress));
+    }
+
+    private static String rangeRunKey(LocalDate startDate, LocalDate endDate) {
+        return "range:" + startDate + ":" + endDate;
+    }
+
+    /**
+     * Sync a project's issues created in [startDate, endDate] in slices of sonarqube.sync.checkpoint-days,
+     * oldest first. After each slice is committed the project's checkpoint for the run moves past it,
+     * so a restarted run skips finished projects and continues others from the first unsynced day.
+     * Pages inside a slice are not checkpointed: their boundaries shift as issues change, and
+     * re-reading part of a slice is harmless because issues are upserted.
+     *
+     * @param restart  ignore the project's checkpoint, finished or not, and sync the whole range again
+     * @param progress run the fetched issues are counted in, or null
+     */
+    private ProjectSyncResult syncRangeResumable(Project project, String runKey, LocalDate startDate, LocalDate endDate,
+                                                 boolean restart, SyncProgressTracker.Run progress) {
+        String projectKey = project.getProjectKey();
+        SyncCheckpoint checkpoint = checkpointRepository.findByRunKeyAndProjectKey(runKey, projectKey)
+                .orElseGet(() -> SyncCheckpoint.builder()
+                        .runKey(runKey)
+                        .projectKey(projectKey)
+                        .resumeFrom(startDate)
+                        .completed(false)
+                        .issuesCommitted(0)
+                        .build());
+        if (restart) {
+            checkpoint.setResumeFrom(startDate);
+            checkpoint.setCompleted(false);
+            checkpoint.setIssuesCommitted(0);
+        }
+
+        ProjectSyncResult total = new ProjectSyncResult();
+        if (Boolean.TRUE.equals(checkpoint.getCompleted())) {
+            log.info("Project {} already finished in run {}, skipping", projectKey, runKey);
+            return total;
+        }
+
+        LocalDate from = checkpoint.getResumeFrom().isAfter(startDate) ? checkpoint.getResumeFrom() : startDate;
+        if (from.isAfter(startDate)) {
+            log.info("Resuming project {} in run {} from {} ({} issues already committed)",
+                    projectKey, runKey, from, checkpoint.getIssuesCommitted());
+        }
+
+        int sliceDays = properties.getSync().getCheckpointDays();
+        while (!from.isAfter(endDate)) {
+            LocalDate sliceFrom = from;
+            LocalDate sliceTo = sliceDays > 0 && sliceFrom.plusDays(sliceDays - 1).isBefore(endDate)
+                    ? sliceFrom.plusDays(sliceDays - 1)
+                    : endDate;
+
+            ProjectSyncResult slice = syncIssuesForProject(project, progress,
+                    pageConsumer -> sonarClient.fetchIssuePagesForProject(projectKey, sliceFrom, sliceTo, pageConsumer));
+            total.add(slice);
+            checkpoint.setIssuesCommitted(checkpoint.getIssuesCommitted() + slice.processed);
+
+            if (!slice.complete) {
+                // Keep the checkpoint at the start of the incomplete slice
+                checkpointRepository.save(checkpoint);
+                return total;
+            }
+
+            from = sliceTo.plusDays(1);
+            checkpoint.setResumeFrom(from);
+            checkpoint.setCompleted(from.isAfter(endDate));
+            checkpoint = checkpointRepository.save(checkpoint);
+        }
+        return total;
+    }
+
+    /**
+     * Drop a run's checkpoints once every project finished; otherwise keep them for the next attempt
+     */
+    private void finishRun(String runKey, ProjectSyncResult totals) {
+        if (totals.complete) {
+            checkpointRepository.deleteByRunKey(runKey);
+        } else {
+            log.warn("Run {} did not finish every project; checkpoints kept so the next run resumes", runKey);
+        }
+    }
+
+    /**
+     * Run one project's sync and record it as a SyncLog row.
+     *
+     * @param baselineWatermark watermark to store if the run completes; the latest issue update seen is
+     *                          used when it is newer. Null leaves the watermark untouched.
+     */
+    private ProjectSyncResult syncProjectLogged(Project project, SyncLog.SyncType syncType, Instant baselineWatermark,
+                                                Supplier<ProjectSyncResult> work) {
+        SyncLog syncLog = new SyncLog();
+        syncLog.setProject(project);
+        syncLog.setSyncType(syncType);
+        syncLog.setStatus(SyncLog.SyncStatus.STARTED);
+        syncLog = syncLogRepository.save(syncLog);
+
+        try {
+            ProjectSyncResult result = work.get();
+
+            syncLog.setRecordsProcessed(result.processed);
+            syncLog.setRecordsCreated(result.created);
+            syncLog.setRecordsUpdated(result.updated);
+            syncLog.setRecordsSkipped(result.skipped);
+            syncLog.setStatus(result.complete ? SyncLog.SyncStatus.SUCCESS : SyncLog.SyncStatus.PARTIAL);
+            if (result.complete && baselineWatermark != null) {
+                Instant mark = result.latestUpdate != null && result.latestUpdate.isAfter(baselineWatermark)
+                        ? result.latestUpdate
+                        : baselineWatermark;
+                syncLog.setHighWaterMark(LocalDateTime.ofInstant(mark, ZoneOffset.UTC));
+            }
+            syncLog.setEndTime(LocalDateTime.now());
+            syncLogRepository.save(syncLog);
+            return result;
+        } catch (RuntimeException e) {
+            syncLog.setStatus(SyncLog.SyncStatus.FAILED);
+            syncLog.setErrorMessage(e.getMessage());
+            syncLog.setEndTime(LocalDateTime.now());
+            syncLogRepository.save(syncLog);
+            throw e;
+        }
+    }
+
+    /**
+     * Stream a project's issues from SonarQube into the database through the ingestion pipeline.
+     * Page N+1 is fetched while page N is resolved and written, so memory stays flat for large projects.
+     *
+     * @param progress run the fetched issues are counted in, or null for a sync that is not tracked
+     */
+    private ProjectSyncResult syncIssuesForProject(Project project, SyncProgressTracker.Run progress,
+                                                   IssuePageSource source) {
         log.info("Syncing issues for project: {}", project.getProjectKey());
 
-        var sonarIssues = sonarClient.fetchIssuesForProject(
-                project.getProjectKey(),
-                startDate,
-                endDate
-        );
+        IssueIngestionPipeline.IngestionResult ingested = ingestionPipeline.ingest("project " + project.getProjectKey(),
+                project, pages -> source.fetch(page -> {
+                    if (progress != null) {
+                        progress.issuesFetched(page.size());
+                    }
+                    pages.accept(page);
+                }).complete());
+
+        ProjectSyncResult result = new ProjectSyncResult();
+        result.add(ingested);
+        log.info("Synced {} issues for project {} ({} created, {} updated, {} unchanged)",
+                result.processed, project.getProjectKey(), result.created, result.updated, result.skipped);
+        return result;
+    }
 
-        Set<String> authors = new HashSet<>();
-        int processed = 0;
+    private static String leaseRunKey(String job, String clusterRunKey) {
+        return clusterRunKey != null ? clusterRunKey : job + ":local:" + UUID.randomUUID();
+    }
+
+    /**
+     * Sync the projects this node can claim in the lease run, then keep taking over projects
+     * whose owner stopped renewing its lease until every project of the run has finished.
+     * A project is finished once attempted, so a failing project is not retried by every node.
+     *
+     * @return totals of the projects synced here; complete only if every node's projects succeeded
+     */
+    private ProjectSyncResult syncIssuesForProjects(Collection<Project> projects, String leaseRunKey,
+                                                    SyncProgressTracker.Run progress,
+                                                    Function<Project, ProjectSyncResult> projectSync) {
+        Map<String, Project> byKey = new HashMap<>();
+        projects.forEach(project -> byKey.put(project.getProjectKey(), project));
+
+        Function<Project, ProjectSyncResult> leased = project -> {
+            if (!leaseService.tryClaim(leaseRunKey, project.getProjectKey())) {
+                log.debug("Project {} is claimed by another node", project.getProjectKey());
+                return new ProjectSyncResult();
+            }
+            boolean succeeded = false;
+            try {
+                ProjectSyncResult result = projectSync.apply(project);
+                succeeded = result.complete;
+                return result;
+            } finally {
+                leaseService.finish(leaseRunKey, project.getProjectKey(), succeeded);
+            }
+        };
 
-        for (var sonarIssue : sonarIssues) {
+        // A project left to another node counts as done; one taken over later was already counted
+        ProjectSyncResult totals = syncClaimedProjects(projects, project -> {
+            long start = System.currentTimeMillis();
+            progress.projectStarted(project.getProjectKey());
             try {
-                syncIssue(sonarIssue, project);
-                if (sonarIssue.getAuthor() != null && !sonarIssue.getAuthor().isEmpty()) {
-                    authors.add(sonarIssue.getAuthor());
+                ProjectSyncResult result = leased.apply(project);
+                progress.projectFinished(project.getProjectKey(), result.complete, result.processed,
+                        System.currentTimeMillis() - start, result.complete ? null : "Sync incomplete");
+                return result;
+            } catch (RuntimeException e) {
+                progress.projectFinished(project.getProjectKey(), false, 0,
+                        System.currentTimeMillis() - start, String.valueOf(e.getMessage()));
+                throw e;
+            }
+        });
+
+        long pollMillis = TimeUnit.SECONDS.toMillis(Math.max(1, properties.getSync().getLeasePollSeconds()));
+        List<SyncLease> pending;
+        while (!(pending = unfinishedLeases(leaseRunKey, byKey)).isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Project> lapsed = pending.stream()
+                    .filter(lease -> lease.getLeaseUntil().isBefore(now))
+                    .map(lease -> byKey.get(lease.getProjectKey()))
+                    .toList();
+            if (!lapsed.isEmpty()) {
+                totals.add(syncClaimedProjects(lapsed, leased));
+                continue;
+            }
+            log.debug("Waiting for {} projects of run {} held by other nodes", pending.size(), leaseRunKey);
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                totals.complete = false;
+                return totals;
+            }
+        }
+
+        totals.complete &= leaseService.allSucceeded(leaseRunKey);
+        return totals;
+    }
+
+    /**
+     * Unfinished leases of the run on projects this node knows, and so could take over
+     */
+    private List<SyncLease> unfinishedLeases(String leaseRunKey, Map<String, Project> byKey) {
+        return leaseService.unfinished(leaseRunKey).stream()
+                .filter(lease -> byKey.containsKey(lease.getProjectKey()))
+                .toList();
+    }
+
+    /**
+     * Sync issues for every project, fanning projects out over the sync executor.
+     * At most sonarqube.sync.parallelism projects are in flight at once; all of them
+     * share the SonarQube rate limiter. A failing project is logged and skipped.
+     *
+     * @return totals over all projects
+     */
+    private ProjectSyncResult syncClaimedProjects(Collection<Project> projects, Function<Project, ProjectSyncResult> projectSync) {
+        int parallelism = Math.max(1, properties.getSync().getParallelism());
+        ProjectSyncResult totals = new ProjectSyncResult();
+
+        if (parallelism == 1 || projects.size() <= 1) {
+            for (Project project : projects) {
+                try {
+                    totals.add(projectSync.apply(project));
+                } catch (Exception e) {
+                    log.error("Error syncing project {}: {}", project.getProjectKey(), e.getMessage());
+                    totals.complete = false;
                 }
-                processed++;
-            } catch (Exception e) {
-                log.error("Error syncing issue {}: {}", sonarIssue.getKey(), e.getMessage());
             }
+            return totals;
         }
 
-        // Sync developers
-        for (String authorKey : authors) {
-            syncDeveloper(authorKey);
+        log.info("Syncing {} projects with parallelism {}", projects.size(), parallelism);
+        Semaphore permits = new Semaphore(parallelism);
+        Map<Project, Future<ProjectSyncResult>> futures = new LinkedHashMap<>();
+
+        try {
+            for (Project project : projects) {
+                permits.acquire();
+                try {
+                    futures.put(project, syncExecutor.submit(() -> {
+                        try {
+                            return projectSync.apply(project);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Project sync interrupted, cancelling {} submitted projects", futures.size());
+            futures.values().forEach(f -> f.cancel(true));
+            totals.complete = false;
+            return totals;
         }
 
-        log.info("Synced {} issues for project {}", processed, project.getProjectKey());
-        return processed;
+        for (Map.Entry<Project, Future<ProjectSyncResult>> entry : futures.entrySet()) {
+            try {
+                totals.add(entry.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(f -> f.cancel(true));
+                totals.complete = false;
+                break;
+            } catch (ExecutionException e) {
+                log.error("Error syncing project {}: {}", entry.getKey().getProjectKey(), e.getCause().getMessage());
+                totals.complete = false;
+            }
+        }
+        return totals;
     }
 
     public SyncResponse syncAllProjects(boolean fullSync) {
+        return syncAllProjects(fullSync, null);
+    }
+
+    /**
+     * @param clusterRunKey run key shared by every node taking part in this run, which then split the
+     *                      projects between them; null runs every project on this node
+     */
+    public SyncResponse syncAllProjects(boolean fullSync, String clusterRunKey) {
         log.info("Starting full SonarQube sync - fullSync: {}", fullSync);
         long start = System.currentTimeMillis();
         try {
             List<SonarProjectSearchResponse.Component> sonarProjects = sonarClient.fetchAllProjects();
             Map<String, Project> projects = syncProjects(sonarProjects);
+            developerResolver.preload();
 
             int totalProjects = projects.size();
-            int totalIssues = 0;
 
-            // Use last 1 month range for sync by default
+            // Range used for full syncs and for projects that have no watermark yet
             LocalDate startDate = LocalDate.now().minusMonths(1).withDayOfMonth(1);
             LocalDate endDate = LocalDate.now();
+            Instant syncStart = Instant.ofEpochMilli(start);
+            checkpointRepository.deleteStale(LocalDateTime.now().minusDays(CHECKPOINT_RETENTION_DAYS));
+            leaseService.deleteStale(LocalDateTime.now().minusDays(CHECKPOINT_RETENTION_DAYS));
 
-            for (Project project : projects.values()) {
-                try {
-                    totalIssues += syncIssuesForProject(project, startDate, endDate);
-                } catch (Exception e) {
-                    log.error("Error syncing project {}: {}", project.getProjectKey(), e.getMessage());
-                }
+            SyncProgressTracker.Run progress = progressTracker.start(fullSync ? "full" : "incremental", totalProjects);
+            ProjectSyncResult totals;
+            try {
+                totals = syncIssuesForProjects(projects.values(), leaseRunKey("all", clusterRunKey), progress, project -> {
+                    ProjectSyncResult result = syncProject(project, fullSync, startDate, endDate, syncStart, progress);
+                    return fullSync ? reconcileDeleted(project, result) : result;
+                });
+            } finally {
+                progress.finish();
             }
+            finishRun(rangeRunKey(startDate, endDate), totals);
+
+            refreshKlocSnapshots(projects.values(), endDate);
 
             SyncResponse.SyncStats stats = new SyncResponse.SyncStats();
             stats.setProjectsProcessed(totalProjects);
-            stats.setIssuesCreated(totalIssues);
+            stats.setIssuesCreated(totals.created);
             stats.setDevelopersCreated(0);
-            stats.setIssuesUpdated(0);
+            stats.setIssuesUpdated(totals.updated);
+            stats.setIssuesSkipped(totals.skipped);
             stats.setMetricsCreated(0);
             stats.setDurationMs(System.currentTimeMillis() - start);
 
@@ -142,98 +537,76 @@ public class SonarQubeSyncService {
         }
     }
 
-    // Changed parameter type to SonarIssuesSearchResponse.IssueDetail and fixed mapping
-    private void syncIssue(SonarIssuesSearchResponse.IssueDetail sonarIssue, Project project) {
-        Issue issue = issueRepository.findByIssueKey(sonarIssue.getKey())
-                .orElseGet(() -> {
-                    Issue newIssue = new Issue();
-                    newIssue.setIssueKey(sonarIssue.getKey());
-                    return newIssue;
-                });
+    /**
+     * Incremental sync of one project, the way syncAllProjects(false) syncs each project.
+     * Used when SonarQube reports a finished analysis; a project not stored yet is created.
+     * The caller holds the sync job lock. The sync is not counted in the progress of any run.
+     */
+    public SyncResponse syncSingleProject(String projectKey, String projectName) {
+        log.info("Starting single project sync for {}", projectKey);
+        long start = System.currentTimeMillis();
+        try {
+            Project project = saveProject(projectKey, projectName != null && !projectName.isBlank() ? projectName : projectKey);
+            developerResolver.preload();
 
-        issue.setIssueKey(sonarIssue.getKey());
-        issue.setProject(project);
-        issue.setRuleKey(sonarIssue.getRule());
-        issue.setSeverity(parseSeverity(sonarIssue.getSeverity()));
-        issue.setIssueType(parseIssueType(sonarIssue.getType()));
-        issue.setStatus(parseStatus(sonarIssue.getStatus()));
-        issue.setComponentPath(sonarIssue.getComponent());
-        issue.setLineNumber(sonarIssue.getLine());
-        issue.setMessage(sonarIssue.getMessage());
-        issue.setEffortMinutes(parseEffort(sonarIssue.getEffort()));
-
-        // Parse dates from Sonar DTO fields (may be null)
-        issue.setCreatedDate(parseDateTime(sonarIssue.getCreationDate()));
-        issue.setUpdatedDate(parseDateTime(sonarIssue.getUpdateDate()));
-        issue.setResolvedDate(parseDateTime(sonarIssue.getCloseDate()));
-
-        if (sonarIssue.getAuthor() != null && !sonarIssue.getAuthor().isEmpty()) {
-            Developer developer = syncDeveloper(sonarIssue.getAuthor());
-            issue.setDeveloper(developer);
-        }
-
-        issueRepository.save(issue);
-    }
-
-    private Developer syncDeveloper(String authorKey) {
-        return developerRepository.findByAuthorKey(authorKey)
-                .orElseGet(() -> {
-                    String displayName = sonarClient.fetchUserDisplayName(authorKey).orElse(authorKey);
-                    Developer developer = Developer.builder()
-                            .authorKey(authorKey)
-                            .displayName(displayName)
-                            .isActive(true)
-                            .build();
-                    return developerRepository.save(developer);
-                });
-    }
+            LocalDate startDate = LocalDate.now().minusMonths(1).withDayOfMonth(1);
+            LocalDate endDate = LocalDate.now();
+            ProjectSyncResult result = syncProject(project, false, startDate, endDate, Instant.ofEpochMilli(start), null);
 
-    private Issue.Severity parseSeverity(String severity) {
-        try {
-            return Issue.Severity.valueOf(severity.toUpperCase());
-        } catch (Exception e) {
-            return Issue.Severity.MAJOR;
-        }
-    }
+            SyncResponse.SyncStats stats = new SyncResponse.SyncStats();
+            stats.setProjectsProcessed(1);
+            stats.setIssuesCreated(result.created);
+            stats.setIssuesUpdated(result.updated);
+            stats.setIssuesSkipped(result.skipped);
+            stats.setDurationMs(System.currentTimeMillis() - start);
 
-    private Issue.IssueType parseIssueType(String type) {
-        try {
-            return Issue.IssueType.valueOf(type.toUpperCase());
+            return result.complete
+                    ? SyncResponse.success("Project " + projectKey + " synced", null, stats)
+                    : SyncResponse.failure("Sync of project " + projectKey + " was incomplete");
         } catch (Exception e) {
-            return Issue.IssueType.CODE_SMELL;
+            log.error("Sync of project {} failed", projectKey, e);
+            return SyncResponse.failure("Sync of project " + projectKey + " failed: " + e.getMessage());
         }
     }
 
-    private Issue.IssueStatus parseStatus(String status) {
-        try {
-            return Issue.IssueStatus.valueOf(status.toUpperCase());
-        } catch (Exception e) {
-            return Issue.IssueStatus.OPEN;
-        }
+    @FunctionalInterface
+    private interface IssuePageSource {
+        SonarQubeClient.IssueFetchResult fetch(Consumer<List<SonarIssuesSearchResponse.IssueDetail>> pageConsumer);
     }
 
-    private Integer parseEffort(String effort) {
-        if (effort == null || effort.isEmpty()) {
-            return 0;
-        }
-        try {
-            // Effort is in format like "5min", "1h", etc.
-            effort = effort.toLowerCase().replace("min", "").replace("h", "").trim();
-            return Integer.parseInt(effort);
-        } catch (Exception e) {
-            return 0;
+    /**
+     * Counts for one project's sync, or totals across projects
+     */
+    private static class ProjectSyncResult {
+        private int processed;
+        private int created;
+        private int updated;
+        private int skipped;
+        private boolean complete = true;
+        private Instant latestUpdate;
+
+        void recordUpdate(Instant updateDate) {
+            if (updateDate != null && (latestUpdate == null || updateDate.isAfter(latestUpdate))) {
+                latestUpdate = updateDate;
+            }
         }
-    }
 
-    private LocalDateTime parseDateTime(String dateTime) {
-        if (dateTime == null || dateTime.isEmpty()) {
-            return null;
+        void add(IssueIngestionPipeline.IngestionResult ingested) {
+            processed += ingested.getWritten();
+            created += ingested.getCreated();
+            updated += ingested.getUpdated();
+            skipped += ingested.getSkipped();
+            complete &= ingested.isComplete();
+            recordUpdate(ingested.getLatestUpdate());
         }
-        try {
-            return LocalDateTime.parse(dateTime, DateTimeFormatter.ISO_DATE_TIME);
-        } catch (DateTimeParseException e) {
-            log.warn("Failed to parse datetime: {}", dateTime);
-            return null;
+
+        void add(ProjectSyncResult other) {
+            processed += other.processed;
+            created += other.created;
+            updated += other.updated;
+            skipped += other.skipped;
+            complete &= other.complete;
+            recordUpdate(other.latestUpdate);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,206 @@
+package lk.sampath.leaderboard.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.dto.SyncResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns SonarQube "analysis completed" webhooks into incremental syncs of the analysed project.
+ * <p>
+ * Analyses of one project reported within sonarqube.webhook.debounce-seconds are synced once, and an
+ * analysis reported while its project is syncing queues one more sync afterwards. Syncs run one at a
+ * time, so a burst of webhooks never fans out into parallel SonarQube downloads, and under the sync job
+ * lock, so they never overlap a scheduled or manual sync; one that finds the lock taken is retried after
+ * the debounce delay. After the last sync settles for sonarqube.webhook.ranking-delay-seconds the current
+ * month's rankings are recalculated.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SonarQubeWebhookService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SonarQubeSyncService syncService;
+    private final RankingCalculationService rankingService;
+    private final JobLockService jobLockService;
+    private final SonarQubeProperties properties;
+
+    private final Map<String, PendingSync> pending = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> pendingRanking;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sonar-webhook-"));
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        String secret = properties.getWebhook().getSecret();
+        return secret != null && !secret.isBlank();
+    }
+
+    /**
+     * Check the X-Sonar-Webhook-HMAC-SHA256 header: the hex HMAC-SHA256 of the raw body under the secret
+     */
+    public boolean isSignatureValid(byte[] body, String signature) {
+        if (!isEnabled() || signature == null) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(properties.getWebhook().getSecret().getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            byte[] expected = mac.doFinal(body);
+            byte[] given;
+            try {
+                given = HexFormat.of().parseHex(signature.trim());
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            // Constant time, so the signature cannot be guessed byte by byte
+            return MessageDigest.isEqual(expected, given);
+        } catch (GeneralSecurityException e) {
+            log.error("Cannot verify webhook signature: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Queue an incremental sync of the project unless one is already waiting
+     *
+     * @return false when the analysis was folded into a sync that is already queued
+     */
+    public boolean projectAnalysed(String projectKey, String projectName) {
+        while (true) {
+            PendingSync created = new PendingSync(projectName);
+            PendingSync existing = pending.putIfAbsent(projectKey, created);
+            if (existing == null) {
+                schedule(projectKey, created);
+                return true;
+            }
+            synchronized (existing) {
+                if (existing.finished) {
+                    // Removed just now; queue a new one
+                    continue;
+                }
+                if (existing.running) {
+                    // Analysed after the running sync read its issues
+                    existing.again = true;
+                }
+            }
+            log.debug("Webhook for project {} folded into its queued sync", projectKey);
+            return false;
+        }
+    }
+
+    private void schedule(String projectKey, PendingSync sync) {
+        scheduler.schedule(() -> runSync(projectKey, sync),
+                Math.max(0, properties.getWebhook().getDebounceSeconds()), TimeUnit.SECONDS);
+    }
+
+    private void runSync(String projectKey, PendingSync sync) {
+        synchronized (sync) {
+            sync.running = true;
+        }
+        boolean deferred = false;
+        try {
+            deferred = !jobLockService.runLockedBriefly(JobLockService.Job.SONARQUBE_SYNC,
+                    () -> syncProject(projectKey, sync.projectName));
+            if (deferred) {
+                log.info("A sync is running, retrying the webhook sync of project {} later", projectKey);
+            }
+        } catch (RuntimeException e) {
+            log.error("Webhook sync of project {} failed", projectKey, e);
+        } finally {
+            boolean again;
+            synchronized (sync) {
+                sync.running = false;
+                again = sync.again || deferred;
+                sync.again = false;
+                if (!again) {
+                    sync.finished = true;
+                    pending.remove(projectKey, sync);
+                }
+            }
+            if (again) {
+                schedule(projectKey, sync);
+            }
+            if (!deferred) {
+                scheduleRanking();
+            }
+        }
+    }
+
+    private void syncProject(String projectKey, String projectName) {
+        SyncResponse response = syncService.syncSingleProject(projectKey, projectName);
+        if (response.isSuccess()) {
+            log.info("Webhook sync of project {} done: {} created, {} updated", projectKey,
+                    response.getStats().getIssuesCreated(), response.getStats().getIssuesUpdated());
+        } else {
+            log.warn("Webhook sync of project {}: {}", projectKey, response.getMessage());
+        }
+    }
+
+    /**
+     * (Re)start the countdown to the ranking recalculation, so a burst of analyses ranks once
+     */
+    private synchronized void scheduleRanking() {
+        if (pendingRanking != null) {
+            pendingRanking.cancel(false);
+        }
+        pendingRanking = scheduler.schedule(this::recalculateRankings,
+                Math.max(0, properties.getWebhook().getRankingDelaySeconds()), TimeUnit.SECONDS);
+    }
+
+    private void recalculateRankings() {
+        if (!pending.isEmpty()) {
+            // The last of the queued syncs reschedules the ranking
+            return;
+        }
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        try {
+            if (!jobLockService.runLocked(JobLockService.Job.RANKING_CALCULATION, null,
+                    () -> rankingService.calculateMonthlyRankings(month))) {
+                log.info("Ranking calculation is running elsewhere, retrying the webhook ranking later");
+                scheduleRanking();
+            }
+        } catch (RuntimeException e) {
+            log.error("Ranking calculation after webhook syncs failed for {}", month, e);
+        }
+    }
+
+    private static class PendingSync {
+        private final String projectName;
+        private boolean running;
+        private boolean again;
+        private boolean finished;
+
+        PendingSync(String projectName) {
+            this.projectName = projectName;
+        }
+    }
+}
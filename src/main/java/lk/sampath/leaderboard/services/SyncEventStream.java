@@ -0,0 +1,139 @@
+package lk.sampath.leaderboard.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans sync and ranking events out to Server-Sent Events watchers.
+ * <p>
+ * Publishing never blocks: each watcher has a bounded buffer that the publisher only offers to,
+ * and a watcher's buffer is drained to its connection on a shared sender pool. While a slow
+ * watcher's buffer is full its new events are dropped (the count is sent as a "dropped" event once
+ * it catches up) instead of slowing the sync, and a watcher whose connection fails is removed.
+ */
+@Service
+@Slf4j
+public class SyncEventStream {
+
+    private static final int WATCHER_BUFFER = 256;
+    private static final int SENDER_THREADS = 2;
+
+    private final Set<Watcher> watchers = ConcurrentHashMap.newKeySet();
+    private ExecutorService sender;
+
+    @PostConstruct
+    void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sync-events-");
+        threadFactory.setDaemon(true);
+        sender = Executors.newFixedThreadPool(SENDER_THREADS, threadFactory);
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        watchers.forEach(watcher -> watcher.emitter.complete());
+    }
+
+    /**
+     * Open a stream for one watcher; it stays open until the client disconnects
+     */
+    public SseEmitter subscribe() {
+        // No timeout: progress of a sync may be watched for hours
+        Watcher watcher = new Watcher(new SseEmitter(0L));
+        watcher.emitter.onCompletion(() -> watchers.remove(watcher));
+        watcher.emitter.onTimeout(() -> watchers.remove(watcher));
+        watcher.emitter.onError(e -> watchers.remove(watcher));
+        watchers.add(watcher);
+        watcher.offer(new Event("connected", Map.of("watchers", watchers.size(), "at", LocalDateTime.now())));
+        return watcher.emitter;
+    }
+
+    /**
+     * Queue an event for every watcher without waiting for any of them
+     */
+    public void publish(String name, Object data) {
+        if (watchers.isEmpty()) {
+            return;
+        }
+        Event event = new Event(name, data);
+        for (Watcher watcher : watchers) {
+            watcher.offer(event);
+        }
+    }
+
+    public boolean hasWatchers() {
+        return !watchers.isEmpty();
+    }
+
+    private record Event(String name, Object data) {
+    }
+
+    private class Watcher {
+        private final SseEmitter emitter;
+        private final Queue<Event> buffer = new ArrayBlockingQueue<>(WATCHER_BUFFER);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+
+        Watcher(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Event event) {
+            if (!buffer.offer(event)) {
+                dropped.incrementAndGet();
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    emitter.send(SseEmitter.event().name("dropped").data(Map.of("events", lost)));
+                }
+                Event event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping sync event watcher: {}", e.getMessage());
+                watchers.remove(this);
+                buffer.clear();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event may have arrived after the last poll but before draining was cleared
+            scheduleDrain();
+        }
+    }
+}
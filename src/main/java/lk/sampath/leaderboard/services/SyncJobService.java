@@ -0,0 +1,195 @@
+package lk.sampath.leaderboard.services;
+
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs sync and ranking jobs requested through the API on the bounded job executor and keeps their status.
+ * Only one job of each type may be queued or running; jobs of different types still serialize on the
+ * job locks, so a job whose lock is held elsewhere ends as SKIPPED.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncJobService {
+
+    public enum JobType {
+        MONTHLY_SYNC(true), MONTHLY_RANKING(false), MONTHLY_COMPLETE(true), SYNC(true), CALCULATE_RANKINGS(false);
+
+        // Whether the job runs a SonarQube sync whose progress it reports
+        private final boolean syncs;
+
+        JobType(boolean syncs) {
+            this.syncs = syncs;
+        }
+    }
+
+    public enum JobStatus {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, SKIPPED
+    }
+
+    /**
+     * Work of a job
+     */
+    @FunctionalInterface
+    public interface JobTask {
+        /**
+         * @return false when the job lock was held by another run and nothing was done
+         */
+        boolean run(SyncJob job) throws Exception;
+    }
+
+    private final ExecutorService jobExecutor;
+    private final SyncProgressTracker progressTracker;
+    private final SonarQubeProperties properties;
+
+    private final Map<String, SyncJob> jobs = new ConcurrentHashMap<>();
+    private final Map<JobType, SyncJob> active = new ConcurrentHashMap<>();
+
+    /**
+     * Queue a job unless one of the same type is queued or running
+     *
+     * @return the new job, or empty with the running one left untouched
+     * @throws RejectedExecutionException when every job worker is busy and the queue is full
+     */
+    public Optional<SyncJob> submit(JobType type, String description, JobTask task) {
+        SyncJob job = new SyncJob(UUID.randomUUID().toString(), type, description);
+        if (active.putIfAbsent(type, job) != null) {
+            return Optional.empty();
+        }
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            active.remove(type, job);
+            jobs.remove(job.id);
+            throw e;
+        }
+        log.info("Queued job {} ({}): {}", job.id, type, description);
+        return Optional.of(job);
+    }
+
+    /**
+     * The queued or running job of a type
+     */
+    public Optional<SyncJob> active(JobType type) {
+        return Optional.ofNullable(active.get(type));
+    }
+
+    public Optional<JobView> find(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(SyncJob::view);
+    }
+
+    /**
+     * Known jobs, most recently submitted first
+     */
+    public List<JobView> list() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((SyncJob job) -> job.submittedAt).reversed())
+                .map(SyncJob::view)
+                .toList();
+    }
+
+    private void run(SyncJob job, JobTask task) {
+        job.startNanos = System.nanoTime();
+        job.startedAt = LocalDateTime.now();
+        job.status = JobStatus.RUNNING;
+        log.info("Started job {} ({})", job.id, job.type);
+        try {
+            job.finish(task.run(job) ? JobStatus.SUCCEEDED : JobStatus.SKIPPED, null);
+        } catch (Exception e) {
+            log.error("Job {} ({}) failed", job.id, job.type, e);
+            job.finish(JobStatus.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            active.remove(job.type, job);
+            pruneHistory();
+        }
+        log.info("Job {} ({}) ended {}", job.id, job.type, job.status);
+    }
+
+    private void pruneHistory() {
+        int keep = Math.max(1, properties.getSync().getJobHistory());
+        List<SyncJob> finished = jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing((SyncJob job) -> job.finishedAt).reversed())
+                .toList();
+        finished.stream().skip(keep).forEach(job -> jobs.remove(job.id));
+    }
+
+    /**
+     * A submitted job. Its sync progress is the node's sync run that started while the job was running.
+     */
+    public class SyncJob {
+        private final String id;
+        private final JobType type;
+        private final String description;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile String phase;
+        private volatile long startNanos;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+        private volatile SyncProgressTracker.Run syncRun;
+
+        private SyncJob(String id, JobType type, String description) {
+            this.id = id;
+            this.type = type;
+            this.description = description;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Name the step a multi-step job is on, such as "sync" or "ranking"
+         */
+        public void setPhase(String phase) {
+            this.phase = phase;
+        }
+
+        private void finish(JobStatus status, String error) {
+            // Keep the run's final numbers with the job
+            syncRun();
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        private SyncProgressTracker.Run syncRun() {
+            if (syncRun == null && startedAt != null && finishedAt == null && type.syncs) {
+                syncRun = progressTracker.current()
+                        .filter(run -> run.getStartNanos() - startNanos >= 0)
+                        .orElse(null);
+            }
+            return syncRun;
+        }
+
+        private JobView view() {
+            SyncProgressTracker.Run run = syncRun();
+            return new JobView(id, type, description, status, phase, submittedAt, startedAt, finishedAt, error,
+                    run != null ? run.snapshot() : null);
+        }
+    }
+
+    /**
+     * @param progress projects, issues, throughput and ETA of the job's sync run, null if it has not synced
+     */
+    public record JobView(String id, JobType type, String description, JobStatus status, String phase,
+                          LocalDateTime submittedAt, LocalDateTime startedAt, LocalDateTime finishedAt,
+                          String error, SyncProgressTracker.Snapshot progress) {
+    }
+}
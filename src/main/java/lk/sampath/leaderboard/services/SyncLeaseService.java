@@ -0,0 +1,164 @@
+package lk.sampath.leaderboard.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.entity.SyncLease;
+import lk.sampath.leaderboard.repository.SyncLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the projects of a sync run between the nodes that run it, using rows in sync_leases.
+ * A node claims a project by inserting its row, works on it while a heartbeat renews the lease,
+ * and marks it finished. When a node dies its leases lapse and any node still in the run takes
+ * the projects over. Nodes only share work when they use the same run key.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncLeaseService {
+
+    // Longest look-back for the latest fire of a scheduled cron: over five years, past a leap-day cycle
+    private static final long MAX_LOOK_BACK_DAYS = 2048;
+
+    private final SyncLeaseRepository leaseRepository;
+    private final SonarQubeProperties properties;
+
+    private String nodeId;
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    void start() {
+        String configured = properties.getSync().getNodeId();
+        nodeId = configured != null && !configured.isBlank()
+                ? configured
+                : ManagementFactory.getRuntimeMXBean().getName();
+
+        long period = Math.max(1, leaseSeconds() / 3);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sync-lease-");
+        threadFactory.setDaemon(true);
+        heartbeat = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        heartbeat.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.SECONDS);
+        log.info("Sync leases held as node {}", nodeId);
+    }
+
+    @PreDestroy
+    void stop() {
+        heartbeat.shutdownNow();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Claim a project for this node, either because nobody has claimed it in this run
+     * or because its owner stopped renewing the lease
+     *
+     * @return false when another node owns or already finished the project
+     */
+    public boolean tryClaim(String runKey, String projectKey) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusSeconds(leaseSeconds());
+        try {
+            leaseRepository.save(SyncLease.builder()
+                    .runKey(runKey)
+                    .projectKey(projectKey)
+                    .owner(nodeId)
+                    .leaseUntil(until)
+                    .finished(false)
+                    .succeeded(false)
+                    .build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Row exists: claimable only if unfinished and lapsed
+        }
+        if (leaseRepository.takeOver(runKey, projectKey, nodeId, until, now) == 1) {
+            log.info("Took over project {} of run {} from a lapsed lease", projectKey, runKey);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Mark a claimed project as done for the run, successful or not, so no node retries it
+     */
+    public void finish(String runKey, String projectKey, boolean succeeded) {
+        if (leaseRepository.finish(runKey, projectKey, nodeId, succeeded, LocalDateTime.now()) == 0) {
+            log.warn("Lease on project {} of run {} was taken over by another node before it finished", projectKey, runKey);
+        }
+    }
+
+    public List<SyncLease> unfinished(String runKey) {
+        return leaseRepository.findByRunKeyAndFinishedFalse(runKey);
+    }
+
+    /**
+     * Whether every project of the run, on any node, finished successfully
+     */
+    public boolean allSucceeded(String runKey) {
+        return leaseRepository.findByRunKey(runKey).stream()
+                .allMatch(lease -> Boolean.TRUE.equals(lease.getFinished()) && Boolean.TRUE.equals(lease.getSucceeded()));
+    }
+
+    public void deleteStale(LocalDateTime before) {
+        leaseRepository.deleteStale(before);
+    }
+
+    /**
+     * Run key shared by every node firing the same cron: the job name plus the latest fire time not after now.
+     * The latest fire is searched for in look-back windows growing from a month to MAX_LOOK_BACK_DAYS, so
+     * yearly and leap-day crons are found too; a cron firing less often than that is keyed by now.
+     */
+    public static String scheduledRunKey(String job, String cron) {
+        CronExpression expression = CronExpression.parse(cron);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime fire = null;
+        for (long lookBack = 32; fire == null && lookBack <= MAX_LOOK_BACK_DAYS; lookBack *= 4) {
+            fire = latestFire(expression, now.minusDays(lookBack), now);
+        }
+        return job + ":" + (fire != null ? fire : now).truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    /**
+     * Last fire of the cron in (from, now], or null if it does not fire in that window
+     */
+    private static LocalDateTime latestFire(CronExpression expression, LocalDateTime from, LocalDateTime now) {
+        LocalDateTime fire = expression.next(from);
+        if (fire == null || fire.isAfter(now)) {
+            return null;
+        }
+        LocalDateTime next;
+        while ((next = expression.next(fire)) != null && !next.isAfter(now)) {
+            fire = next;
+        }
+        return fire;
+    }
+
+    private void renew() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            leaseRepository.renewAll(nodeId, now.plusSeconds(leaseSeconds()), now);
+        } catch (DataAccessException e) {
+            log.warn("Could not renew sync leases of node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private int leaseSeconds() {
+        return Math.max(3, properties.getSync().getLeaseSeconds());
+    }
+}
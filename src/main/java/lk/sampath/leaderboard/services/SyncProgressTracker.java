@@ -0,0 +1,158 @@
+package lk.sampath.leaderboard.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of the sync run on this node: projects done, issues fetched, throughput and ETA.
+ * The job lock allows one sync per node at a time, so the latest run is the only one tracked.
+ * Run and project events, and a progress snapshot every few seconds, go to the sync event stream.
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncProgressTracker {
+
+    private static final int PROGRESS_EVENT_SECONDS = 2;
+
+    private final SyncEventStream eventStream;
+
+    private volatile Run current;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sync-progress-");
+        threadFactory.setDaemon(true);
+        ticker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        ticker.scheduleAtFixedRate(this::publishProgress, PROGRESS_EVENT_SECONDS, PROGRESS_EVENT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Start tracking a run over the given number of projects, replacing the previous run
+     */
+    public Run start(String name, int totalProjects) {
+        Run run = new Run(name, totalProjects);
+        current = run;
+        eventStream.publish("run-started", run.snapshot());
+        return run;
+    }
+
+    public Optional<Run> current() {
+        return Optional.ofNullable(current);
+    }
+
+    private void publishProgress() {
+        Run run = current;
+        if (run != null && run.finishedAt == null && eventStream.hasWatchers()) {
+            eventStream.publish("progress", run.snapshot());
+        }
+    }
+
+    /**
+     * One sync run; counters are updated by the project workers
+     */
+    public class Run {
+        private final String name;
+        private final int totalProjects;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger projectsDone = new AtomicInteger();
+        private final AtomicInteger projectsFailed = new AtomicInteger();
+        private final LongAdder issues = new LongAdder();
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishNanos;
+
+        private Run(String name, int totalProjects) {
+            this.name = name;
+            this.totalProjects = totalProjects;
+        }
+
+        /**
+         * Issues fetched from SonarQube for this run
+         */
+        public void issuesFetched(int count) {
+            if (finishedAt == null) {
+                issues.add(count);
+            }
+        }
+
+        public void projectStarted(String projectKey) {
+            eventStream.publish("project-started", Map.of("run", name, "project", projectKey));
+        }
+
+        /**
+         * A project was synced here, or left to another node
+         *
+         * @param error why the project failed, or null
+         */
+        public void projectFinished(String projectKey, boolean succeeded, int issues, long durationMillis, String error) {
+            projectsDone.incrementAndGet();
+            if (!succeeded) {
+                projectsFailed.incrementAndGet();
+            }
+            if (eventStream.hasWatchers()) {
+                Map<String, Object> event = new LinkedHashMap<>();
+                event.put("run", name);
+                event.put("project", projectKey);
+                event.put("succeeded", succeeded);
+                event.put("issues", issues);
+                event.put("durationMs", durationMillis);
+                if (error != null) {
+                    event.put("error", error);
+                }
+                eventStream.publish(error != null ? "project-failed" : "project-finished", event);
+            }
+        }
+
+        public void finish() {
+            finishNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            eventStream.publish("run-finished", snapshot());
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public Snapshot snapshot() {
+            long end = finishedAt != null ? finishNanos : System.nanoTime();
+            double seconds = Math.max(1e-3, (end - startNanos) / 1e9);
+            int done = projectsDone.get();
+            long issueCount = issues.sum();
+
+            // Remaining projects at the average time per project so far
+            Long etaSeconds = null;
+            if (finishedAt == null && done > 0) {
+                etaSeconds = Math.round(Math.max(0, totalProjects - done) * seconds / done);
+            }
+            return new Snapshot(name, startedAt, finishedAt, totalProjects, done, projectsFailed.get(),
+                    issueCount, issueCount / seconds, etaSeconds);
+        }
+    }
+
+    /**
+     * @param etaSeconds estimated time to finish, null before the first project is done or once finished
+     */
+    public record Snapshot(String run, LocalDateTime startedAt, LocalDateTime finishedAt, int totalProjects,
+                           int projectsDone, int projectsFailed, long issues, double issuesPerSecond,
+                           Long etaSeconds) {
+    }
+}
@@ -0,0 +1,163 @@
+package lk.sampath.leaderboard.util;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Input streams for import sources.
+ * Local files are read through a FileChannel in large sequential reads into a direct buffer, which keeps
+ * network file systems streaming instead of serving small reads (or page faults, with a mapped file) one
+ * at a time. Compressed sources are recognised by their magic bytes and decoded on the fly: gzip with the
+ * JDK's decoder, zstd with aircompressor's pure-Java one.
+ */
+public final class ImportStreams {
+
+    private static final int FILE_BUFFER_BYTES = 1 << 20;
+    private static final int DECODE_BUFFER_BYTES = 1 << 16;
+    private static final int MAGIC_BYTES = 4;
+
+    private ImportStreams() {
+    }
+
+    /**
+     * Open a local file, decoding it if it is compressed
+     */
+    public static InputStream openFile(Path path) throws IOException {
+        return decode(new ChannelInputStream(FileChannel.open(path, StandardOpenOption.READ)));
+    }
+
+    /**
+     * Whether a local file starts with the magic bytes of a compressed format, so it can only be read in order
+     */
+    public static boolean isCompressed(Path path) throws IOException {
+        byte[] magic = new byte[MAGIC_BYTES];
+        int read;
+        try (InputStream in = Files.newInputStream(path)) {
+            read = in.readNBytes(magic, 0, MAGIC_BYTES);
+        }
+        return isGzip(magic, read) || isZstd(magic, read);
+    }
+
+    /**
+     * The content of a stream that may be gzip or zstd compressed; the stream is closed with the result
+     */
+    public static InputStream decode(InputStream in) throws IOException {
+        InputStream source = in.markSupported() ? in : new BufferedInputStream(in, DECODE_BUFFER_BYTES);
+        byte[] magic = new byte[MAGIC_BYTES];
+        source.mark(MAGIC_BYTES);
+        int read = source.readNBytes(magic, 0, MAGIC_BYTES);
+        source.reset();
+
+        if (isGzip(magic, read)) {
+            return new GZIPInputStream(source, DECODE_BUFFER_BYTES);
+        }
+        if (isZstd(magic, read)) {
+            return new ZstdInputStream(source);
+        }
+        return source;
+    }
+
+    private static boolean isGzip(byte[] magic, int read) {
+        return read >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B;
+    }
+
+    private static boolean isZstd(byte[] magic, int read) {
+        return read == MAGIC_BYTES && (magic[0] & 0xFF) == 0x28 && (magic[1] & 0xFF) == 0xB5
+                && (magic[2] & 0xFF) == 0x2F && (magic[3] & 0xFF) == 0xFD;
+    }
+
+    /**
+     * Sequential reads of a file channel through a direct buffer.
+     * A refill keeps the marked bytes while they are within the mark's read limit.
+     */
+    private static final class ChannelInputStream extends InputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(FILE_BUFFER_BYTES);
+        private int mark = -1;
+        private int markLimit;
+
+        ChannelInputStream(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readLimit) {
+            mark = buffer.position();
+            markLimit = readLimit;
+        }
+
+        @Override
+        public void reset() throws IOException {
+            if (mark < 0) {
+                throw new IOException("Mark not set or no longer valid");
+            }
+            buffer.position(mark);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private boolean fill() throws IOException {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+            int kept = 0;
+            if (mark >= 0 && buffer.limit() - mark < Math.min(markLimit, buffer.capacity())) {
+                buffer.position(mark);
+                kept = buffer.remaining();
+                buffer.compact();
+                mark = 0;
+            } else {
+                mark = -1;
+                buffer.clear();
+            }
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            buffer.position(kept);
+            return buffer.hasRemaining();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package lk.sampath.leaderboard.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Reads newline-delimited JSON (one record per line) in batches.
+ * A plain local file is split into byte ranges that start at line boundaries and the ranges are
+ * parsed at once on an executor; any other source is read from start to end. Blank lines are skipped
+ * and a line that cannot be parsed is reported with its byte offset without stopping the read.
+ */
+public final class NdjsonReader {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+    // Smaller files are not worth splitting
+    private static final long MIN_RANGE_BYTES = 4L << 20;
+
+    private final Path file;
+    private final InputStream stream;
+    private final int parts;
+    private final ExecutorService executor;
+
+    private NdjsonReader(Path file, InputStream stream, int parts, ExecutorService executor) {
+        this.file = file;
+        this.stream = stream;
+        this.parts = parts;
+        this.executor = executor;
+    }
+
+    /**
+     * A plain (uncompressed) file read as up to parts ranges on the executor
+     */
+    public static NdjsonReader ofFile(Path file, int parts, ExecutorService executor) {
+        return new NdjsonReader(file, null, Math.max(1, parts), executor);
+    }
+
+    /**
+     * A stream read in order on the calling thread
+     */
+    public static NdjsonReader ofStream(InputStream stream) {
+        return new NdjsonReader(null, stream, 1, null);
+    }
+
+    /**
+     * Parse every line with the reader and hand the records over in batches.
+     * With a split file the batch and error consumers are called from several threads at once.
+     *
+     * @return number of records parsed
+     */
+    public <T> long read(ObjectReader reader, int batchSize, Consumer<List<T>> batches, Consumer<String> errors)
+            throws IOException {
+        if (file == null) {
+            return new LineParser<T>(reader, batchSize, batches, errors).parse(stream, 0, Long.MAX_VALUE);
+        }
+
+        long[] bounds = lineRanges();
+        if (bounds.length == 2) {
+            return readRange(bounds[0], bounds[1], reader, batchSize, batches, errors);
+        }
+
+        List<Future<Long>> rest = new ArrayList<>();
+        try {
+            for (int i = 1; i < bounds.length - 1; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                rest.add(executor.submit(() -> readRange(start, end, reader, batchSize, batches, errors)));
+            }
+            long records = readRange(bounds[0], bounds[1], reader, batchSize, batches, errors);
+            for (Future<Long> range : rest) {
+                records += range.get();
+            }
+            return records;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("NDJSON read interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            rest.forEach(range -> range.cancel(true));
+        }
+    }
+
+    /**
+     * Offsets splitting the file into ranges of whole lines: range i is [bounds[i], bounds[i + 1])
+     */
+    private long[] lineRanges() throws IOException {
+        long size = Files.size(file);
+        int count = (int) Math.max(1, Math.min(parts, size / MIN_RANGE_BYTES));
+        long[] bounds = new long[count + 1];
+        bounds[count] = size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int filled = 1;
+            for (int i = 1; i < count; i++) {
+                long start = nextLineStart(channel, size * i / count);
+                if (start > bounds[filled - 1] && start < size) {
+                    bounds[filled++] = start;
+                }
+            }
+            bounds[filled] = size;
+            return Arrays.copyOf(bounds, filled + 1);
+        }
+    }
+
+    /**
+     * First offset at or after position that starts a line
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long offset = position - 1;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    private <T> long readRange(long start, long end, ObjectReader reader, int batchSize, Consumer<List<T>> batches,
+                               Consumer<String> errors) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(start);
+            return new LineParser<T>(reader, batchSize, batches, errors)
+                    .parse(Channels.newInputStream(channel), start, end - start);
+        }
+    }
+
+    /**
+     * Splits a byte stream into lines, parsing each straight from the read buffer unless it spans two reads
+     */
+    private static final class LineParser<T> {
+        private final ObjectReader reader;
+        private final int batchSize;
+        private final Consumer<List<T>> batches;
+        private final Consumer<String> errors;
+        private List<T> batch;
+        private long records;
+
+        LineParser(ObjectReader reader, int batchSize, Consumer<List<T>> batches, Consumer<String> errors) {
+            this.reader = reader;
+            this.batchSize = Math.max(1, batchSize);
+            this.batches = batches;
+            this.errors = errors;
+            this.batch = new ArrayList<>(this.batchSize);
+        }
+
+        long parse(InputStream in, long offset, long limit) throws IOException {
+            byte[] chunk = new byte[BUFFER_BYTES];
+            // Start of a line cut off by the end of the previous read
+            byte[] carry = new byte[0];
+            int carried = 0;
+            long lineOffset = offset;
+            long remaining = limit;
+
+            while (remaining > 0) {
+                int read = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                remaining -= read;
+                int lineStart = 0;
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] != '\n') {
+                        continue;
+                    }
+                    if (carried > 0) {
+                        carry = append(carry, carried, chunk, lineStart, i - lineStart);
+                        line(carry, 0, carried + i - lineStart, lineOffset);
+                        lineOffset += carried + i - lineStart + 1;
+                        carried = 0;
+                    } else {
+                        line(chunk, lineStart, i - lineStart, lineOffset);
+                        lineOffset += i - lineStart + 1;
+                    }
+                    lineStart = i + 1;
+                }
+                if (lineStart < read) {
+                    carry = append(carry, carried, chunk, lineStart, read - lineStart);
+                    carried += read - lineStart;
+                }
+            }
+            // Last line without a newline
+            if (carried > 0) {
+                line(carry, 0, carried, lineOffset);
+            }
+            if (!batch.isEmpty()) {
+                batches.accept(batch);
+            }
+            return records;
+        }
+
+        private void line(byte[] bytes, int from, int length, long lineOffset) {
+            int end = from + length;
+            while (end > from && isWhitespace(bytes[end - 1])) {
+                end--;
+            }
+            int start = from;
+            while (start < end && isWhitespace(bytes[start])) {
+                start++;
+            }
+            if (start == end) {
+                return;
+            }
+            try {
+                batch.add(reader.readValue(bytes, start, end - start));
+            } catch (JsonProcessingException e) {
+                errors.accept("Line at byte " + lineOffset + ": " + e.getOriginalMessage());
+                return;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            records++;
+            if (batch.size() == batchSize) {
+                batches.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+
+        private static byte[] append(byte[] carry, int carried, byte[] chunk, int from, int length) {
+            if (carried + length > carry.length) {
+                carry = Arrays.copyOf(carry, Math.max(carried + length, carry.length * 2));
+            }
+            System.arraycopy(chunk, from, carry, carried, length);
+            return carry;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- KLOC per project and ranking period, captured during sync
+CREATE TABLE IF NOT EXISTS project_kloc_snapshots (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  project_id INT NOT NULL,
+  snapshot_period DATE NOT NULL,
+  ncloc BIGINT NOT NULL,
+  kloc DECIMAL(12, 2) NOT NULL,
+  captured_at DATETIME(6) NOT NULL,
+  CONSTRAINT uk_kloc_project_period UNIQUE (project_id, snapshot_period),
+  CONSTRAINT fk_kloc_project FOREIGN KEY (project_id) REFERENCES projects (id)
+);
+
+CREATE INDEX idx_kloc_snapshot_period ON project_kloc_snapshots (snapshot_period);
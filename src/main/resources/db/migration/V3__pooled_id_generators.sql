@@ -0,0 +1,18 @@
+-- Table-backed id blocks (pooled optimizer, 50 ids per block) replacing AUTO_INCREMENT ids.
+-- Each row starts past the ids already in use; the AUTO_INCREMENT columns keep working for
+-- rows that are inserted with an explicit id.
+CREATE TABLE IF NOT EXISTS id_generators (
+  sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+  next_val BIGINT
+);
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'issues', COALESCE(MAX(id), 0) + 51 FROM issues
+UNION ALL SELECT 'developers', COALESCE(MAX(id), 0) + 51 FROM developers
+UNION ALL SELECT 'projects', COALESCE(MAX(id), 0) + 51 FROM projects
+UNION ALL SELECT 'individual_rankings', COALESCE(MAX(id), 0) + 51 FROM individual_rankings
+UNION ALL SELECT 'project_rankings', COALESCE(MAX(id), 0) + 51 FROM project_rankings
+UNION ALL SELECT 'sync_logs', COALESCE(MAX(id), 0) + 51 FROM sync_logs
+UNION ALL SELECT 'project_kloc_snapshots', COALESCE(MAX(id), 0) + 51 FROM project_kloc_snapshots
+UNION ALL SELECT 'monthly_champions', COALESCE(MAX(id), 0) + 51 FROM monthly_champions
+ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
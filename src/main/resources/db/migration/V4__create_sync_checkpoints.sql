@@ -0,0 +1,16 @@
+-- Resume points of date-range syncs, one row per run and project
+CREATE TABLE IF NOT EXISTS sync_checkpoints (
+  id INT PRIMARY KEY,
+  run_key VARCHAR(100) NOT NULL,
+  project_key VARCHAR(255) NOT NULL,
+  resume_from DATE NOT NULL,
+  completed BIT NOT NULL,
+  issues_committed INT NOT NULL,
+  updated_at DATETIME(6) NOT NULL,
+  CONSTRAINT uk_checkpoint_run_project UNIQUE (run_key, project_key)
+);
+
+CREATE INDEX idx_checkpoint_updated_at ON sync_checkpoints (updated_at);
+
+INSERT INTO id_generators (sequence_name, next_val) VALUES ('sync_checkpoints', 51)
+ON DUPLICATE KEY UPDATE next_val = next_val;
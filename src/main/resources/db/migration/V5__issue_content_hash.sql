@@ -0,0 +1,3 @@
+-- Change detection: hash of the synced issue columns, and skipped counts per sync
+ALTER TABLE issues ADD COLUMN content_hash BIGINT NULL;
+ALTER TABLE sync_logs ADD COLUMN records_skipped INT NULL DEFAULT 0;
@@ -0,0 +1,18 @@
+-- Project claims of a cluster-wide sync run, one row per run and project
+CREATE TABLE IF NOT EXISTS sync_leases (
+  id INT PRIMARY KEY,
+  run_key VARCHAR(150) NOT NULL,
+  project_key VARCHAR(255) NOT NULL,
+  owner VARCHAR(100) NOT NULL,
+  lease_until DATETIME(6) NOT NULL,
+  finished BIT NOT NULL,
+  succeeded BIT NOT NULL,
+  updated_at DATETIME(6) NOT NULL,
+  CONSTRAINT uk_lease_run_project UNIQUE (run_key, project_key)
+);
+
+CREATE INDEX idx_lease_owner ON sync_leases (owner);
+CREATE INDEX idx_lease_updated_at ON sync_leases (updated_at);
+
+INSERT INTO id_generators (sequence_name, next_val) VALUES ('sync_leases', 51)
+ON DUPLICATE KEY UPDATE next_val = next_val;
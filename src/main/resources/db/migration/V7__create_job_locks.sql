@@ -0,0 +1,7 @@
+-- Cluster-wide locks of scheduled and manually triggered jobs, one row per job
+CREATE TABLE IF NOT EXISTS job_locks (
+  name VARCHAR(64) PRIMARY KEY,
+  locked_until DATETIME(6) NOT NULL,
+  locked_at DATETIME(6) NOT NULL,
+  locked_by VARCHAR(200) NOT NULL
+);
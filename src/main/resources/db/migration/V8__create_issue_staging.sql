@@ -0,0 +1,21 @@
+-- Parsed issues of a bulk import, loaded with LOAD DATA and merged into issues, projects and developers.
+-- Rows are keyed by the import's load id and removed once the import has been merged.
+CREATE TABLE IF NOT EXISTS issue_staging (
+  load_id VARCHAR(36) NOT NULL,
+  issue_key VARCHAR(255) NOT NULL,
+  row_no BIGINT NOT NULL,
+  project_key VARCHAR(255),
+  author VARCHAR(255),
+  rule_key VARCHAR(255),
+  severity VARCHAR(20),
+  issue_type VARCHAR(20),
+  status VARCHAR(20),
+  component_path VARCHAR(500),
+  line_number INT,
+  message TEXT,
+  effort_minutes INT,
+  created_date DATETIME,
+  updated_date DATETIME,
+  resolved_date DATETIME,
+  PRIMARY KEY (load_id, issue_key)
+);
@@ -0,0 +1,2 @@
+-- Incremental sync watermark: latest issue updateDate (UTC) known to be synced, per sync log
+ALTER TABLE sync_logs ADD COLUMN high_water_mark DATETIME(6) NULL;
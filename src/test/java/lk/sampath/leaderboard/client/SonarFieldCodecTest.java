@@ -0,0 +1,223 @@
+package lk.sampath.leaderboard.client;
+
+import lk.sampath.leaderboard.entity.Issue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pins SonarFieldCodec against the parsers of the baseline ImportFromJsonService, kept below as Legacy
+ */
+class SonarFieldCodecTest {
+
+    @Test
+    void timestampWithCompactOffset() {
+        String text = "2025-05-28T23:04:42-0400";
+
+        assertThat(SonarFieldCodec.localDateTime(text)).isEqualTo(LocalDateTime.of(2025, 5, 28, 23, 4, 42));
+        assertThat(SonarFieldCodec.instant(text)).isEqualTo(Instant.parse("2025-05-29T03:04:42Z"));
+        assertThat(SonarFieldCodec.localDateTime(text)).isEqualTo(Legacy.localDateTime(text));
+        assertThat(SonarFieldCodec.instant(text)).isEqualTo(Legacy.instant(text));
+    }
+
+    @Test
+    void timestampWithColonOffset() {
+        String text = "2025-05-28T23:04:42+04:00";
+
+        assertThat(SonarFieldCodec.localDateTime(text)).isEqualTo(LocalDateTime.of(2025, 5, 28, 23, 4, 42));
+        assertThat(SonarFieldCodec.instant(text)).isEqualTo(Instant.parse("2025-05-28T19:04:42Z"));
+        assertThat(SonarFieldCodec.localDateTime(text)).isEqualTo(Legacy.localDateTime(text));
+        assertThat(SonarFieldCodec.instant(text)).isEqualTo(Legacy.instant(text));
+    }
+
+    @Test
+    void timestampInUtc() {
+        for (String text : List.of("2025-05-28T23:04:42Z", "2025-05-28T23:04:42+0000", "2025-05-28T23:04:42+00:00")) {
+            assertThat(SonarFieldCodec.localDateTime(text)).as(text).isEqualTo(LocalDateTime.of(2025, 5, 28, 23, 4, 42));
+            assertThat(SonarFieldCodec.instant(text)).as(text).isEqualTo(Instant.parse("2025-05-28T23:04:42Z"));
+            assertThat(SonarFieldCodec.localDateTime(text)).as(text).isEqualTo(Legacy.localDateTime(text));
+            assertThat(SonarFieldCodec.instant(text)).as(text).isEqualTo(Legacy.instant(text));
+        }
+    }
+
+    @Test
+    void fractionalSecondsAreDropped() {
+        for (String text : List.of("2025-05-28T23:04:42.123+04:00", "2025-05-28T23:04:42.123+0400", "2025-05-28T23:04:42.999999Z")) {
+            assertThat(SonarFieldCodec.localDateTime(text)).as(text).isEqualTo(LocalDateTime.of(2025, 5, 28, 23, 4, 42));
+            // The old parser kept them
+            assertThat(SonarFieldCodec.localDateTime(text)).as(text)
+                    .isEqualTo(Legacy.localDateTime(text).truncatedTo(ChronoUnit.SECONDS));
+            assertThat(SonarFieldCodec.instant(text)).as(text).isEqualTo(Legacy.instant(text).truncatedTo(ChronoUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void timestampWithoutOffsetIsReadAsUtc() {
+        String text = "2025-05-28T23:04:42";
+
+        assertThat(SonarFieldCodec.localDateTime(text)).isEqualTo(LocalDateTime.of(2025, 5, 28, 23, 4, 42));
+        assertThat(SonarFieldCodec.instant(text)).isEqualTo(Instant.parse("2025-05-28T23:04:42Z"));
+        // The old parser required an offset
+        assertThat(Legacy.localDateTime(text)).isNull();
+    }
+
+    @Test
+    void leapDays() {
+        for (String text : List.of("2024-02-29T10:00:00+0000", "2000-02-29T10:00:00Z")) {
+            assertThat(SonarFieldCodec.localDateTime(text)).as(text).isNotNull().isEqualTo(Legacy.localDateTime(text));
+            assertThat(SonarFieldCodec.localDateTime(text).getDayOfMonth()).isEqualTo(29);
+        }
+
+        // Not leap years; the old parser clamped these to the 28th
+        for (String text : List.of("2023-02-29T10:00:00+0000", "1900-02-29T10:00:00+0000")) {
+            assertThat(SonarFieldCodec.localDateTime(text)).as(text).isNull();
+            assertThat(SonarFieldCodec.instant(text)).as(text).isNull();
+            assertThat(Legacy.localDateTime(text).getDayOfMonth()).as(text).isEqualTo(28);
+        }
+    }
+
+    @Test
+    void impossibleTimesAreRejectedWhereTheOldParserAdjustedThem() {
+        assertThat(SonarFieldCodec.localDateTime("2025-04-31T00:00:00+0000")).isNull();
+        assertThat(Legacy.localDateTime("2025-04-31T00:00:00+0000")).isEqualTo(LocalDateTime.of(2025, 4, 30, 0, 0));
+
+        assertThat(SonarFieldCodec.localDateTime("2025-05-28T24:00:00+0000")).isNull();
+        assertThat(Legacy.localDateTime("2025-05-28T24:00:00+0000")).isEqualTo(LocalDateTime.of(2025, 5, 29, 0, 0));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "2025-05-28",
+            "2025-13-01T00:00:00+0000",
+            "2025-05-28T23:60:00+0000",
+            "2025-05-28T23:04:42+4",
+            "2025-05-28T23:04:42+19:00",
+            "2025-05-28T23:04:42+0400x",
+            "2025-05-28T23:04:42Zulu",
+            "2025/05/28T23:04:42+0000",
+            "yesterday at noon, roughly"
+    })
+    void malformedTimestampsGiveNull(String text) {
+        assertThat(SonarFieldCodec.localDateTime(text)).isNull();
+        assertThat(SonarFieldCodec.instant(text)).isNull();
+        assertThat(Legacy.localDateTime(text)).isNull();
+    }
+
+    @Test
+    void effortDurations() {
+        for (String text : List.of("5min", "2h", "1h 30min", "2h 5min", "")) {
+            assertThat(SonarFieldCodec.effortMinutes(text)).as(text).isEqualTo(Legacy.effortMinutes(text));
+        }
+        assertThat(SonarFieldCodec.effortMinutes("1h 30min")).isEqualTo(90);
+        assertThat(SonarFieldCodec.effortMinutes(null)).isZero();
+        assertThat(Legacy.effortMinutes(null)).isZero();
+    }
+
+    @Test
+    void effortFormatsTheOldParserMissed() {
+        // Days, bare minutes and upper case counted as nothing
+        assertThat(SonarFieldCodec.effortMinutes("1d")).isEqualTo(480);
+        assertThat(Legacy.effortMinutes("1d")).isZero();
+        assertThat(SonarFieldCodec.effortMinutes("1d 2h 5min")).isEqualTo(605);
+        assertThat(Legacy.effortMinutes("1d 2h 5min")).isEqualTo(125);
+        assertThat(SonarFieldCodec.effortMinutes("45")).isEqualTo(45);
+        assertThat(Legacy.effortMinutes("45")).isZero();
+        assertThat(SonarFieldCodec.effortMinutes("10MIN")).isEqualTo(10);
+        assertThat(Legacy.effortMinutes("10MIN")).isZero();
+
+        // Hours and minutes without a space failed the whole issue
+        assertThat(SonarFieldCodec.effortMinutes("1h30min")).isEqualTo(90);
+        assertThatThrownBy(() -> Legacy.effortMinutes("1h30min")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void unreadableEffortCountsAsZero() {
+        for (String text : List.of("garbage", "1h?", "about")) {
+            assertThat(SonarFieldCodec.effortMinutes(text)).as(text).isZero();
+            assertThat(Legacy.effortMinutes(text)).as(text).isZero();
+        }
+        // The old parser counted the parts it could read
+        assertThat(SonarFieldCodec.effortMinutes("about 1h")).isZero();
+        assertThat(Legacy.effortMinutes("about 1h")).isEqualTo(60);
+    }
+
+    @Test
+    void enumsMatchCaseInsensitivelyWithDefaults() {
+        assertThat(SonarFieldCodec.severity("critical")).isEqualTo(Issue.Severity.CRITICAL);
+        assertThat(SonarFieldCodec.severity("bogus")).isEqualTo(Issue.Severity.MAJOR);
+        assertThat(SonarFieldCodec.severity(null)).isEqualTo(Issue.Severity.MAJOR);
+        assertThat(SonarFieldCodec.issueType("Bug")).isEqualTo(Issue.IssueType.BUG);
+        assertThat(SonarFieldCodec.issueType(null)).isEqualTo(Issue.IssueType.CODE_SMELL);
+        assertThat(SonarFieldCodec.status("closed")).isEqualTo(Issue.IssueStatus.CLOSED);
+        assertThat(SonarFieldCodec.status("")).isEqualTo(Issue.IssueStatus.OPEN);
+    }
+
+    /**
+     * tryParseOffsetDateTime and parseEffort as they were in the baseline ImportFromJsonService
+     */
+    static final class Legacy {
+
+        private Legacy() {
+        }
+
+        static Instant instant(String text) {
+            OffsetDateTime dateTime = tryParseOffsetDateTime(text);
+            return dateTime != null ? dateTime.toInstant() : null;
+        }
+
+        static LocalDateTime localDateTime(String text) {
+            OffsetDateTime dateTime = tryParseOffsetDateTime(text);
+            return dateTime != null ? dateTime.toLocalDateTime() : null;
+        }
+
+        private static OffsetDateTime tryParseOffsetDateTime(String text) {
+            if (text == null || text.isEmpty()) return null;
+            DateTimeFormatter[] fmts = new DateTimeFormatter[] {
+                    DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+                    DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ"),
+                    DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ")
+            };
+            for (DateTimeFormatter fmt : fmts) {
+                try {
+                    return OffsetDateTime.parse(text, fmt);
+                } catch (Exception ignored) {
+                }
+            }
+            // try inserting colon into offset if missing (e.g. -0500 -> -05:00)
+            if (text.matches(".*[+-]\\d{4}$")) {
+                String t = text.substring(0, text.length() - 2) + ":" + text.substring(text.length() - 2);
+                try {
+                    return OffsetDateTime.parse(t, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+                } catch (Exception ignored) {
+                }
+            }
+            return null;
+        }
+
+        static Integer effortMinutes(String effort) {
+            if (effort == null || effort.isEmpty()) return 0;
+            int minutes = 0;
+            String[] parts = effort.split(" ");
+            for (String part : parts) {
+                if (part.endsWith("min")) {
+                    minutes += Integer.parseInt(part.replace("min", ""));
+                } else if (part.endsWith("h")) {
+                    minutes += Integer.parseInt(part.replace("h", "")) * 60;
+                }
+            }
+            return minutes;
+        }
+    }
+}
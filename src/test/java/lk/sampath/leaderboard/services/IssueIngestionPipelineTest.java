@@ -0,0 +1,98 @@
+package lk.sampath.leaderboard.services;
+
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.config.SyncExecutorConfig;
+import lk.sampath.leaderboard.dto.SonarIssuesSearchResponse;
+import lk.sampath.leaderboard.entity.Issue;
+import lk.sampath.leaderboard.entity.Project;
+import lk.sampath.leaderboard.repository.IssueRepository;
+import lk.sampath.leaderboard.repository.IssueRepositoryCustom;
+import lk.sampath.leaderboard.repository.ProjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ingestions called from the workers of a small fixed pool, as project syncs and imports are on a Java 17 runtime
+ */
+class IssueIngestionPipelineTest {
+
+    private static final int PARALLELISM = 2;
+    private static final int SOURCES = 4 * PARALLELISM;
+    private static final int PAGES = 5;
+    private static final int PAGE_SIZE = 3;
+
+    private ExecutorService syncExecutor;
+    private ExecutorService ingestExecutor;
+    private IssueIngestionPipeline pipeline;
+
+    @BeforeEach
+    void createPipeline() {
+        SonarQubeProperties properties = new SonarQubeProperties();
+        properties.getSync().setVirtualThreads(false);
+        properties.getSync().setParallelism(PARALLELISM);
+        properties.getSync().setPrefetchPages(1);
+        properties.getSync().setChunkSize(2);
+
+        SyncExecutorConfig config = new SyncExecutorConfig();
+        syncExecutor = config.syncExecutor(properties);
+        ingestExecutor = config.ingestExecutor(properties);
+
+        IssueRepository issueRepository = mock(IssueRepository.class);
+        when(issueRepository.upsertAll(anyList())).thenAnswer(invocation ->
+                new IssueRepositoryCustom.UpsertResult(invocation.<List<Issue>>getArgument(0).size(), 0, 0));
+        pipeline = new IssueIngestionPipeline(issueRepository, mock(ProjectRepository.class),
+                mock(DeveloperIdentityResolver.class), properties, ingestExecutor);
+    }
+
+    @AfterEach
+    void shutDown() {
+        syncExecutor.shutdownNow();
+        ingestExecutor.shutdownNow();
+    }
+
+    @Test
+    void moreIngestionsThanSyncWorkersAllFinish() throws Exception {
+        Project project = Project.builder().projectKey("p").projectName("p").isActive(true).build();
+
+        List<Future<IssueIngestionPipeline.IngestionResult>> runs = new ArrayList<>();
+        for (int source = 0; source < SOURCES; source++) {
+            String prefix = "s" + source + "-";
+            runs.add(syncExecutor.submit(() -> pipeline.ingest(prefix, project, pages -> {
+                for (int page = 0; page < PAGES; page++) {
+                    pages.accept(page(prefix + page + "-"));
+                }
+                return true;
+            })));
+        }
+
+        for (Future<IssueIngestionPipeline.IngestionResult> run : runs) {
+            IssueIngestionPipeline.IngestionResult result = run.get(30, TimeUnit.SECONDS);
+            assertThat(result.isComplete()).isTrue();
+            assertThat(result.getCreated()).isEqualTo(PAGES * PAGE_SIZE);
+            assertThat(result.getErrors()).isEmpty();
+        }
+    }
+
+    private static List<SonarIssuesSearchResponse.IssueDetail> page(String prefix) {
+        List<SonarIssuesSearchResponse.IssueDetail> page = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            SonarIssuesSearchResponse.IssueDetail detail = new SonarIssuesSearchResponse.IssueDetail();
+            detail.setKey(prefix + i);
+            detail.setProject("p");
+            page.add(detail);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,132 @@
+package lk.sampath.leaderboard.services;
+
+import lk.sampath.leaderboard.config.SonarQubeProperties;
+import lk.sampath.leaderboard.entity.SyncLease;
+import lk.sampath.leaderboard.repository.SyncLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes sharing one H2 database through their own SyncLeaseService: claim, takeover after the
+ * lease of a stopped node lapses, and finish
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SyncLeaseServiceTest {
+
+    private static final int LEASE_SECONDS = 3;
+    private static final String RUN = "all:2025-11-01T02:00";
+
+    @Autowired
+    private SyncLeaseRepository leaseRepository;
+
+    private SyncLeaseService nodeA;
+    private SyncLeaseService nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        leaseRepository.deleteAll();
+        nodeA = node("node-a");
+        nodeB = node("node-b");
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    void nodesClaimDifferentProjects() {
+        assertThat(nodeA.tryClaim(RUN, "p1")).isTrue();
+        assertThat(nodeB.tryClaim(RUN, "p1")).isFalse();
+        assertThat(nodeB.tryClaim(RUN, "p2")).isTrue();
+        assertThat(nodeA.tryClaim(RUN, "p2")).isFalse();
+
+        assertThat(nodeA.unfinished(RUN)).extracting(SyncLease::getProjectKey).containsExactlyInAnyOrder("p1", "p2");
+        assertThat(lease("p1").getOwner()).isEqualTo("node-a");
+        assertThat(lease("p2").getOwner()).isEqualTo("node-b");
+    }
+
+    @Test
+    void renewedLeaseIsNotTakenOver() throws InterruptedException {
+        assertThat(nodeA.tryClaim(RUN, "p1")).isTrue();
+
+        // Past the first lease, which node A's heartbeat has renewed meanwhile
+        Thread.sleep((LEASE_SECONDS + 1) * 1000L);
+
+        assertThat(nodeB.tryClaim(RUN, "p1")).isFalse();
+        assertThat(lease("p1").getOwner()).isEqualTo("node-a");
+    }
+
+    @Test
+    void lapsedLeaseIsTakenOverAndFinishedByTheNewOwner() throws InterruptedException {
+        assertThat(nodeA.tryClaim(RUN, "p1")).isTrue();
+        nodeA.stop();
+
+        Thread.sleep((LEASE_SECONDS + 1) * 1000L);
+
+        assertThat(nodeB.tryClaim(RUN, "p1")).isTrue();
+        assertThat(lease("p1").getOwner()).isEqualTo("node-b");
+
+        // The node that lost the project cannot finish it any more
+        nodeA.finish(RUN, "p1", false);
+        assertThat(lease("p1").getFinished()).isFalse();
+
+        nodeB.finish(RUN, "p1", true);
+        assertThat(lease("p1").getFinished()).isTrue();
+        assertThat(nodeB.unfinished(RUN)).isEmpty();
+        assertThat(nodeB.allSucceeded(RUN)).isTrue();
+    }
+
+    @Test
+    void finishedProjectIsNotClaimedAgain() throws InterruptedException {
+        assertThat(nodeA.tryClaim(RUN, "p1")).isTrue();
+        nodeA.finish(RUN, "p1", false);
+
+        Thread.sleep(1000L);
+
+        assertThat(nodeB.tryClaim(RUN, "p1")).isFalse();
+        assertThat(nodeA.tryClaim(RUN, "p1")).isFalse();
+        assertThat(nodeB.allSucceeded(RUN)).isFalse();
+    }
+
+    @Test
+    void scheduledRunKeyFindsTheLatestFireOfInfrequentCrons() {
+        LocalDateTime now = LocalDateTime.now();
+
+        String yearly = SyncLeaseService.scheduledRunKey("yearly", "0 0 0 1 1 ?");
+        assertThat(yearly).isEqualTo("yearly:" + now.withDayOfYear(1).truncatedTo(ChronoUnit.DAYS));
+
+        String monthly = SyncLeaseService.scheduledRunKey("monthly", "0 0 0 1 * ?");
+        assertThat(monthly).isEqualTo("monthly:" + now.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS));
+    }
+
+    private SyncLeaseService node(String nodeId) {
+        SonarQubeProperties properties = new SonarQubeProperties();
+        properties.getSync().setNodeId(nodeId);
+        properties.getSync().setLeaseSeconds(LEASE_SECONDS);
+        SyncLeaseService service = new SyncLeaseService(leaseRepository, properties);
+        service.start();
+        return service;
+    }
+
+    private SyncLease lease(String projectKey) {
+        List<SyncLease> leases = leaseRepository.findByRunKey(RUN).stream()
+                .filter(lease -> lease.getProjectKey().equals(projectKey))
+                .toList();
+        assertThat(leases).hasSize(1);
+        return leases.get(0);
+    }
+}
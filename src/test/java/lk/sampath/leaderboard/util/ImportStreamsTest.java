@@ -0,0 +1,61 @@
+package lk.sampath.leaderboard.util;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportStreamsTest {
+
+    // Larger than the file buffer, so decoding crosses refills
+    private static final byte[] CONTENT = "{\"issues\":[{\"key\":\"AX-1\"}]}\n".repeat(60_000)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void plainContentIsPassedThrough() throws IOException {
+        assertDecodes(CONTENT, "plain.json");
+    }
+
+    @Test
+    void gzipIsDecoded() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(CONTENT);
+        }
+        assertDecodes(bytes.toByteArray(), "issues.json.gz");
+    }
+
+    @Test
+    void zstdIsDecoded() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new ZstdOutputStream(bytes)) {
+            out.write(CONTENT);
+        }
+        assertDecodes(bytes.toByteArray(), "issues.json.zst");
+    }
+
+    private void assertDecodes(byte[] encoded, String fileName) throws IOException {
+        try (InputStream in = ImportStreams.decode(new ByteArrayInputStream(encoded))) {
+            assertThat(in.readAllBytes()).isEqualTo(CONTENT);
+        }
+
+        Path file = Files.write(dir.resolve(fileName), encoded);
+        try (InputStream in = ImportStreams.openFile(file)) {
+            assertThat(in.readAllBytes()).isEqualTo(CONTENT);
+        }
+    }
+}